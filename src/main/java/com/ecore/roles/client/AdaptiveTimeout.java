@@ -0,0 +1,56 @@
+package com.ecore.roles.client;
+
+import java.time.Duration;
+
+/**
+ * Read timeout that follows the observed latency of an upstream, computed like a TCP retransmission
+ * timeout: the smoothed latency plus a multiple of its mean deviation, kept between a floor and a
+ * ceiling. A timed out call doubles the timeout until the next successful call.
+ */
+class AdaptiveTimeout {
+
+    private static final int WARM_UP_SAMPLES = 10;
+
+    private final long minNanos;
+    private final long maxNanos;
+    private final double deviations;
+
+    private double smoothedNanos;
+    private double deviationNanos;
+    private int samples;
+    private volatile long timeoutNanos;
+
+    AdaptiveTimeout(Duration min, Duration max, double deviations) {
+        this.minNanos = Math.min(min.toNanos(), max.toNanos());
+        this.maxNanos = max.toNanos();
+        this.deviations = deviations;
+        this.timeoutNanos = maxNanos;
+    }
+
+    Duration current() {
+        return Duration.ofNanos(timeoutNanos);
+    }
+
+    synchronized void recordSuccess(long latencyNanos) {
+        if (samples == 0) {
+            smoothedNanos = latencyNanos;
+            deviationNanos = latencyNanos / 2d;
+        } else {
+            deviationNanos += (Math.abs(latencyNanos - smoothedNanos) - deviationNanos) / 4;
+            smoothedNanos += (latencyNanos - smoothedNanos) / 8;
+        }
+        if (samples < WARM_UP_SAMPLES) {
+            samples++;
+            return;
+        }
+        timeoutNanos = clamp((long) (smoothedNanos + deviations * deviationNanos));
+    }
+
+    synchronized void recordTimeout() {
+        timeoutNanos = clamp(timeoutNanos * 2);
+    }
+
+    private long clamp(long nanos) {
+        return Math.max(minNanos, Math.min(maxNanos, nanos));
+    }
+}
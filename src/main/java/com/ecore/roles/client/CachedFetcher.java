@@ -0,0 +1,123 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Resolves upstream resources through the client caches outside of the {@code @Cacheable} proxies.
+ * Bulk lookups collapse duplicate ids, serve cached entries straight from the cache and fetch only
+ * the misses, concurrently, on a pool shared by all callers so the number of in-flight upstream
+ * requests stays bounded. Asynchronous lookups read and populate the same caches.
+ */
+@Component
+public class CachedFetcher {
+
+    private final CacheManager cacheManager;
+    private final ExecutorService executor;
+
+    @Autowired
+    public CachedFetcher(
+            CacheManager cacheManager,
+            ClientsConfigurationProperties clientsConfigurationProperties) {
+        this(cacheManager, Executors.newFixedThreadPool(
+                clientsConfigurationProperties.getFanOut().getConcurrency(),
+                new CustomizableThreadFactory("clients-fan-out-")));
+    }
+
+    CachedFetcher(CacheManager cacheManager, ExecutorService executor) {
+        this.cacheManager = cacheManager;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the resources found for the given ids, in request order, skipping the ones the upstream
+     * API does not know about.
+     */
+    public <T> List<T> fetchAll(
+            String cacheName,
+            Collection<UUID> ids,
+            Function<UUID, ResponseEntity<T>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Map<UUID, CompletableFuture<ResponseEntity<T>>> responses = new LinkedHashMap<>();
+        for (UUID id : new LinkedHashSet<>(ids)) {
+            ResponseEntity<T> cached = cached(cache, id);
+            responses.put(id, cached != null
+                    ? CompletableFuture.completedFuture(cached)
+                    : CompletableFuture.supplyAsync(() -> loader.apply(id), executor));
+        }
+
+        List<T> result = new ArrayList<>(responses.size());
+        for (CompletableFuture<ResponseEntity<T>> response : responses.values()) {
+            T body = join(response).getBody();
+            if (body != null) {
+                result.add(body);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached response for the given id, or subscribes to the loader and caches its
+     * response, including 404 answers.
+     */
+    public <T> Mono<ResponseEntity<T>> fetchAsync(
+            String cacheName,
+            UUID id,
+            Function<UUID, Mono<ResponseEntity<T>>> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        ResponseEntity<T> cached = cached(cache, id);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return loader.apply(id).doOnNext(response -> {
+            if (cache != null) {
+                cache.put(id, response);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ResponseEntity<T> cached(Cache cache, UUID id) {
+        if (cache == null) {
+            return null;
+        }
+        Cache.ValueWrapper value = cache.get(id);
+        return value != null ? (ResponseEntity<T>) value.get() : null;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
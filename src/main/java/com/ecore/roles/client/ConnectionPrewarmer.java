@@ -0,0 +1,89 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens connections of the blocking engine's pool to the upstream APIs once the application is
+ * ready, so the first requests do not pay for the TCP and TLS handshakes.
+ */
+@Log4j2
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(prefix = "clients", name = "engine", havingValue = "blocking", matchIfMissing = true)
+public class ConnectionPrewarmer {
+
+    private final PoolingHttpClientConnectionManager clientsConnectionManager;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prewarm() {
+        int connections = clientsConfigurationProperties.getHttp().getPrewarmConnections();
+        if (connections <= 0) {
+            return;
+        }
+        Thread thread = new Thread(() -> routes().forEach(route -> prewarm(route, connections)),
+                "clients-prewarm");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Set<HttpRoute> routes() {
+        Set<HttpRoute> routes = new LinkedHashSet<>();
+        routes.add(route(clientsConfigurationProperties.getUsersApiHost()));
+        routes.add(route(clientsConfigurationProperties.getTeamsApiHost()));
+        return routes;
+    }
+
+    private void prewarm(HttpRoute route, int connections) {
+        ClientsConfigurationProperties.Http http = clientsConfigurationProperties.getHttp();
+        int connectTimeout = (int) http.getConnectTimeout().toMillis();
+        List<HttpClientConnection> opened = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                ConnectionRequest request = clientsConnectionManager.requestConnection(route, null);
+                HttpClientConnection connection =
+                        request.get(http.getPoolAcquireTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                opened.add(connection);
+                if (!connection.isOpen()) {
+                    clientsConnectionManager.connect(connection, route, connectTimeout,
+                            HttpClientContext.create());
+                    clientsConnectionManager.routeComplete(connection, route, HttpClientContext.create());
+                }
+            }
+            log.info("Pre-warmed {} connections to {}", opened.size(), route.getTargetHost());
+        } catch (Exception e) {
+            log.warn("Could not pre-warm connections to {}: {}", route.getTargetHost(), e.getMessage());
+        } finally {
+            for (HttpClientConnection connection : opened) {
+                clientsConnectionManager.releaseConnection(connection, null,
+                        http.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static HttpRoute route(String host) {
+        URI uri = URI.create(host);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        int port = uri.getPort() > 0 ? uri.getPort() : secure ? 443 : 80;
+        return new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure);
+    }
+}
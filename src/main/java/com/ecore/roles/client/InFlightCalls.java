@@ -0,0 +1,83 @@
+package com.ecore.roles.client;
+
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Table of the upstream calls currently in flight, keyed by the resource they fetch. A caller
+ * asking for a resource that is already being fetched waits for that call and gets its result or
+ * error instead of issuing a second one. Entries are removed as soon as their call completes, so
+ * nothing is cached beyond the lifetime of a call.
+ */
+class InFlightCalls {
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> blocking = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, Mono<Object>> reactive = new ConcurrentHashMap<>();
+
+    /**
+     * Runs {@code call} unless a call for the same key is already in flight, in which case its outcome
+     * is awaited. {@code onCoalesced} runs for each caller that did not issue a call of its own.
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(Object key, Supplier<T> call, Runnable onCoalesced) {
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> leader = blocking.putIfAbsent(key, own);
+        if (leader != null) {
+            onCoalesced.run();
+            return (T) join(leader);
+        }
+        try {
+            T result = call.get();
+            blocking.remove(key, own);
+            own.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            blocking.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #execute}. The first subscriber starts the call; it keeps
+     * running when a single subscriber cancels, since others may be waiting for it.
+     */
+    @SuppressWarnings("unchecked")
+    <T> Mono<T> executeAsync(Object key, Supplier<Mono<T>> call, Runnable onCoalesced) {
+        return Mono.defer(() -> {
+            Mono<Object>[] own = new Mono[1];
+            own[0] = Mono.defer(() -> (Mono<Object>) call.get())
+                    .doFinally(signal -> reactive.remove(key, own[0]))
+                    .share();
+            Mono<Object> leader = reactive.putIfAbsent(key, own[0]);
+            if (leader != null) {
+                onCoalesced.run();
+                return (Mono<T>) leader;
+            }
+            return (Mono<T>) own[0];
+        });
+    }
+
+    int size() {
+        return blocking.size() + reactive.size();
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
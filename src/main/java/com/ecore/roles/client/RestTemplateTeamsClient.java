@@ -0,0 +1,67 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(prefix = "clients", name = "engine", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateTeamsClient implements TeamsClient {
+
+    private final RestTemplate restTemplate;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final UpstreamGuard upstreamGuard;
+
+    @Override
+    public ResponseEntity<Team> getTeam(UUID id) {
+        return upstreamGuard.call(Upstream.TEAMS, id, () -> {
+            try {
+                return restTemplate.exchange(
+                        clientsConfigurationProperties.getTeamsApiHost() + "/" + id,
+                        HttpMethod.GET,
+                        new HttpEntity<>(upstreamGuard.validators(Upstream.TEAMS, id)),
+                        Team.class);
+            } catch (HttpClientErrorException.NotFound e) {
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    @Override
+    public ResponseEntity<List<Team>> getTeams() {
+        return upstreamGuard.call(Upstream.TEAMS, UpstreamGuard.ALL, () -> restTemplate.exchange(
+                clientsConfigurationProperties.getTeamsApiHost(),
+                HttpMethod.GET,
+                new HttpEntity<>(upstreamGuard.validators(Upstream.TEAMS, UpstreamGuard.ALL)),
+                new ParameterizedTypeReference<List<Team>>() {}));
+    }
+
+    /**
+     * Runs the blocking call on the bounded elastic scheduler, so callers never block on it.
+     */
+    @Override
+    public Mono<ResponseEntity<Team>> getTeamAsync(UUID id) {
+        return Mono.fromCallable(() -> getTeam(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<Team>>> getTeamsAsync() {
+        return Mono.fromCallable(this::getTeams)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
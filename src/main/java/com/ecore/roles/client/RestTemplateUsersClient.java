@@ -0,0 +1,67 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.client.model.User;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(prefix = "clients", name = "engine", havingValue = "blocking", matchIfMissing = true)
+public class RestTemplateUsersClient implements UsersClient {
+
+    private final RestTemplate restTemplate;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final UpstreamGuard upstreamGuard;
+
+    @Override
+    public ResponseEntity<User> getUser(UUID id) {
+        return upstreamGuard.call(Upstream.USERS, id, () -> {
+            try {
+                return restTemplate.exchange(
+                        clientsConfigurationProperties.getUsersApiHost() + "/" + id,
+                        HttpMethod.GET,
+                        new HttpEntity<>(upstreamGuard.validators(Upstream.USERS, id)),
+                        User.class);
+            } catch (HttpClientErrorException.NotFound e) {
+                return ResponseEntity.notFound().build();
+            }
+        });
+    }
+
+    @Override
+    public ResponseEntity<List<User>> getUsers() {
+        return upstreamGuard.call(Upstream.USERS, UpstreamGuard.ALL, () -> restTemplate.exchange(
+                clientsConfigurationProperties.getUsersApiHost(),
+                HttpMethod.GET,
+                new HttpEntity<>(upstreamGuard.validators(Upstream.USERS, UpstreamGuard.ALL)),
+                new ParameterizedTypeReference<List<User>>() {}));
+    }
+
+    /**
+     * Runs the blocking call on the bounded elastic scheduler, so callers never block on it.
+     */
+    @Override
+    public Mono<ResponseEntity<User>> getUserAsync(UUID id) {
+        return Mono.fromCallable(() -> getUser(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<User>>> getUsersAsync() {
+        return Mono.fromCallable(this::getUsers)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -1,37 +1,27 @@
 package com.ecore.roles.client;
 
 import com.ecore.roles.client.model.Team;
-import com.ecore.roles.configuration.ClientsConfigurationProperties;
-import lombok.RequiredArgsConstructor;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.UUID;
 
-@RequiredArgsConstructor
-@Component
-public class TeamsClient {
-
-    private final RestTemplate restTemplate;
-    private final ClientsConfigurationProperties clientsConfigurationProperties;
-
-    public ResponseEntity<Team> getTeam(UUID id) {
-        return restTemplate.exchange(
-                clientsConfigurationProperties.getTeamsApiHost() + "/" + id,
-                HttpMethod.GET,
-                null,
-                Team.class);
-    }
-
-    public ResponseEntity<List<Team>> getTeams() {
-        return restTemplate.exchange(
-                clientsConfigurationProperties.getTeamsApiHost(),
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {});
-    }
+import static com.ecore.roles.configuration.CacheConfiguration.TEAMS_CACHE;
+
+/**
+ * Client of the Teams API. A team the API does not know is returned as a 404 response with an empty
+ * body rather than as an exception.
+ */
+public interface TeamsClient {
+
+    @Cacheable(cacheNames = TEAMS_CACHE, key = "#id")
+    ResponseEntity<Team> getTeam(UUID id);
+
+    ResponseEntity<List<Team>> getTeams();
+
+    Mono<ResponseEntity<Team>> getTeamAsync(UUID id);
+
+    Mono<ResponseEntity<List<Team>>> getTeamsAsync();
 }
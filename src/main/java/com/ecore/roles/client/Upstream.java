@@ -0,0 +1,21 @@
+package com.ecore.roles.client;
+
+/**
+ * Upstream APIs called by the service. The instance name keys their circuit breaker, bulkhead and
+ * metrics.
+ */
+public enum Upstream {
+
+    USERS("users"),
+    TEAMS("teams");
+
+    private final String instanceName;
+
+    Upstream(String instanceName) {
+        this.instanceName = instanceName;
+    }
+
+    public String getInstanceName() {
+        return instanceName;
+    }
+}
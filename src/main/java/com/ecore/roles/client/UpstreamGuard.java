@@ -0,0 +1,359 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import com.ecore.roles.exception.UpstreamUnavailableException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the service from slow or failing upstream APIs. Each upstream gets a semaphore bulkhead
+ * that caps its concurrent calls, a circuit breaker that stops calling it while it keeps failing,
+ * and a read timeout that adapts to its observed latency. When a call is rejected or fails, the
+ * last good response for the same resource is returned instead, if there is one. Concurrent calls
+ * for the same resource are coalesced into a single upstream call whose outcome they all share.
+ * Last good responses that carry an ETag are also used to revalidate the resource with
+ * {@code If-None-Match} instead of downloading it again.
+ */
+@Log4j2
+@Component
+public class UpstreamGuard {
+
+    /**
+     * Key of the responses listing all resources of an upstream.
+     */
+    public static final String ALL = "*";
+
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final MeterRegistry meterRegistry;
+    private final Map<Upstream, Guard> guards = new EnumMap<>(Upstream.class);
+    private final Cache<List<Object>, ResponseEntity<?>> lastGoodResponses;
+    private final InFlightCalls inFlightCalls = new InFlightCalls();
+
+    @Autowired
+    public UpstreamGuard(
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            ClientsConfigurationProperties clientsConfigurationProperties,
+            MeterRegistry meterRegistry) {
+        this.clientsConfigurationProperties = clientsConfigurationProperties;
+        this.meterRegistry = meterRegistry;
+        ClientsConfigurationProperties.Resilience resilience = clientsConfigurationProperties.getResilience();
+        for (Upstream upstream : Upstream.values()) {
+            Guard guard = new Guard(
+                    circuitBreakerRegistry.circuitBreaker(upstream.getInstanceName()),
+                    bulkheadRegistry.bulkhead(upstream.getInstanceName()),
+                    new AdaptiveTimeout(resilience.getMinTimeout(),
+                            clientsConfigurationProperties.getHttp().getReadTimeout(),
+                            resilience.getTimeoutDeviations()),
+                    Counter.builder("clients.upstream.coalesced")
+                            .description("Calls answered by an identical upstream call already in flight")
+                            .tag("upstream", upstream.getInstanceName())
+                            .register(meterRegistry),
+                    Counter.builder("clients.upstream.not_modified")
+                            .description(
+                                    "Upstream calls answered with 304, served from the last good response")
+                            .tag("upstream", upstream.getInstanceName())
+                            .register(meterRegistry));
+            guards.put(upstream, guard);
+            Gauge.builder("clients.upstream.timeout", guard.timeout,
+                    timeout -> timeout.current().toNanos() / 1e9)
+                    .description("Current adaptive read timeout of the upstream API")
+                    .baseUnit("seconds")
+                    .tag("upstream", upstream.getInstanceName())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("clients.upstream.in_flight", inFlightCalls, InFlightCalls::size)
+                .description("Distinct upstream calls currently in flight")
+                .register(meterRegistry);
+        this.lastGoodResponses = Caffeine.newBuilder()
+                .maximumSize(resilience.getStaleMaximumSize())
+                .expireAfterWrite(resilience.getStaleTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, lastGoodResponses, "clients-stale");
+    }
+
+    /**
+     * Runs a blocking upstream call for the resource identified by {@code key}.
+     *
+     * @throws UpstreamUnavailableException when the call is rejected or fails and no earlier response
+     *         for the resource is known
+     */
+    public <T> ResponseEntity<T> call(Upstream upstream, Object key, Supplier<ResponseEntity<T>> call) {
+        if (!clientsConfigurationProperties.isCoalesceRequests()) {
+            return guarded(upstream, key, call);
+        }
+        Guard guard = guards.get(upstream);
+        return inFlightCalls.execute(List.of(upstream, key), () -> guarded(upstream, key, call),
+                guard.coalesced::increment);
+    }
+
+    /**
+     * Non-blocking counterpart of {@link #call}; the adaptive timeout is applied to the returned
+     * {@link Mono}.
+     */
+    public <T> Mono<ResponseEntity<T>> callAsync(
+            Upstream upstream,
+            Object key,
+            Supplier<Mono<ResponseEntity<T>>> call) {
+        if (!clientsConfigurationProperties.isCoalesceRequests()) {
+            return guardedAsync(upstream, key, call);
+        }
+        Guard guard = guards.get(upstream);
+        return inFlightCalls.executeAsync(List.of(upstream, key), () -> guardedAsync(upstream, key, call),
+                guard.coalesced::increment);
+    }
+
+    private <T> ResponseEntity<T> guarded(Upstream upstream, Object key, Supplier<ResponseEntity<T>> call) {
+        Guard guard = guards.get(upstream);
+        if (!guard.bulkhead.tryAcquirePermission()) {
+            return fallback(upstream, key, "bulkhead_full",
+                    BulkheadFullException.createBulkheadFullException(guard.bulkhead));
+        }
+        try {
+            if (!guard.circuitBreaker.tryAcquirePermission()) {
+                return fallback(upstream, key, "circuit_open",
+                        CallNotPermittedException.createCallNotPermittedException(guard.circuitBreaker));
+            }
+            long start = System.nanoTime();
+            ResponseEntity<T> response;
+            try {
+                response = revalidated(upstream, key, call.get(), call);
+            } catch (HttpClientErrorException e) {
+                guard.circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                throw e;
+            } catch (RuntimeException e) {
+                onError(guard, System.nanoTime() - start, e);
+                return fallback(upstream, key, null, e);
+            }
+            onSuccess(upstream, key, guard, System.nanoTime() - start, response);
+            return response;
+        } finally {
+            guard.bulkhead.onComplete();
+        }
+    }
+
+    private <T> Mono<ResponseEntity<T>> guardedAsync(
+            Upstream upstream,
+            Object key,
+            Supplier<Mono<ResponseEntity<T>>> call) {
+        return Mono.defer(() -> {
+            Guard guard = guards.get(upstream);
+            if (!guard.bulkhead.tryAcquirePermission()) {
+                return fallbackAsync(upstream, key, "bulkhead_full",
+                        BulkheadFullException.createBulkheadFullException(guard.bulkhead));
+            }
+            if (!guard.circuitBreaker.tryAcquirePermission()) {
+                guard.bulkhead.onComplete();
+                return fallbackAsync(upstream, key, "circuit_open",
+                        CallNotPermittedException.createCallNotPermittedException(guard.circuitBreaker));
+            }
+            long start = System.nanoTime();
+            return call.get()
+                    .flatMap(response -> revalidatedAsync(upstream, key, response, call))
+                    .timeout(guard.timeout.current())
+                    .doOnNext(
+                            response -> onSuccess(upstream, key, guard, System.nanoTime() - start, response))
+                    .onErrorResume(e -> {
+                        if (e instanceof WebClientResponseException
+                                && ((WebClientResponseException) e).getStatusCode().is4xxClientError()) {
+                            guard.circuitBreaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            return Mono.error(e);
+                        }
+                        onError(guard, System.nanoTime() - start, e);
+                        return fallbackAsync(upstream, key, null, e);
+                    })
+                    .doFinally(signal -> {
+                        if (signal == SignalType.CANCEL) {
+                            guard.circuitBreaker.releasePermission();
+                        }
+                        guard.bulkhead.onComplete();
+                    });
+        });
+    }
+
+    /**
+     * Returns the read timeout to use for a request to the given URI, if it targets an upstream API.
+     */
+    public Optional<Duration> timeoutFor(URI uri) {
+        String target = uri.toString();
+        if (startsWith(target, clientsConfigurationProperties.getUsersApiHost())) {
+            return Optional.of(guards.get(Upstream.USERS).timeout.current());
+        }
+        if (startsWith(target, clientsConfigurationProperties.getTeamsApiHost())) {
+            return Optional.of(guards.get(Upstream.TEAMS).timeout.current());
+        }
+        return Optional.empty();
+    }
+
+    public Duration timeout(Upstream upstream) {
+        return guards.get(upstream).timeout.current();
+    }
+
+    /**
+     * Returns the request headers validating the last good response of the resource, an
+     * {@code If-None-Match} with its ETag, or no headers when none is known.
+     */
+    public HttpHeaders validators(Upstream upstream, Object key) {
+        HttpHeaders headers = new HttpHeaders();
+        ResponseEntity<?> stored = lastGoodResponses.getIfPresent(List.of(upstream, key));
+        if (stored != null && stored.getHeaders().getETag() != null) {
+            headers.setIfNoneMatch(stored.getHeaders().getETag());
+        }
+        return headers;
+    }
+
+    /**
+     * Swaps a 304 answer for the stored response it validated. Should that response have been evicted
+     * in the meantime, the call is repeated, this time without a validator.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> revalidated(
+            Upstream upstream,
+            Object key,
+            ResponseEntity<T> response,
+            Supplier<ResponseEntity<T>> call) {
+        if (response == null || response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+            return response;
+        }
+        ResponseEntity<T> stored = (ResponseEntity<T>) lastGoodResponses.getIfPresent(List.of(upstream, key));
+        if (stored == null) {
+            return call.get();
+        }
+        guards.get(upstream).notModified.increment();
+        return stored;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<ResponseEntity<T>> revalidatedAsync(
+            Upstream upstream,
+            Object key,
+            ResponseEntity<T> response,
+            Supplier<Mono<ResponseEntity<T>>> call) {
+        if (response.getStatusCode() != HttpStatus.NOT_MODIFIED) {
+            return Mono.just(response);
+        }
+        ResponseEntity<T> stored = (ResponseEntity<T>) lastGoodResponses.getIfPresent(List.of(upstream, key));
+        if (stored == null) {
+            return call.get();
+        }
+        guards.get(upstream).notModified.increment();
+        return Mono.just(stored);
+    }
+
+    private void onSuccess(
+            Upstream upstream,
+            Object key,
+            Guard guard,
+            long nanos,
+            ResponseEntity<?> response) {
+        guard.circuitBreaker.onSuccess(nanos, TimeUnit.NANOSECONDS);
+        guard.timeout.recordSuccess(nanos);
+        if (response != null && response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            lastGoodResponses.put(List.of(upstream, key), response);
+        }
+    }
+
+    private static void onError(Guard guard, long nanos, Throwable e) {
+        guard.circuitBreaker.onError(nanos, TimeUnit.NANOSECONDS, e);
+        if (isTimeout(e)) {
+            guard.timeout.recordTimeout();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> fallback(Upstream upstream, Object key, String rejection, Throwable cause) {
+        if (rejection != null) {
+            meterRegistry.counter("clients.upstream.rejected",
+                    "upstream", upstream.getInstanceName(), "reason", rejection).increment();
+        }
+        ResponseEntity<T> stale = (ResponseEntity<T>) lastGoodResponses.getIfPresent(List.of(upstream, key));
+        meterRegistry.counter("clients.upstream.fallback",
+                "upstream", upstream.getInstanceName(), "outcome", stale != null ? "stale" : "unavailable")
+                .increment();
+        if (stale != null) {
+            log.debug("Serving the last good {} response for {}: {}", upstream.getInstanceName(), key,
+                    cause.getMessage());
+            return stale;
+        }
+        throw new UpstreamUnavailableException(upstream.getInstanceName(), cause);
+    }
+
+    private <T> Mono<ResponseEntity<T>> fallbackAsync(
+            Upstream upstream,
+            Object key,
+            String rejection,
+            Throwable cause) {
+        try {
+            return Mono.just(fallback(upstream, key, rejection, cause));
+        } catch (UpstreamUnavailableException e) {
+            return Mono.error(e);
+        }
+    }
+
+    private static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsWith(String target, String host) {
+        return host != null && target.startsWith(host);
+    }
+
+    private static final class Guard {
+
+        private final CircuitBreaker circuitBreaker;
+        private final Bulkhead bulkhead;
+        private final AdaptiveTimeout timeout;
+        private final Counter coalesced;
+        private final Counter notModified;
+
+        private Guard(
+                CircuitBreaker circuitBreaker,
+                Bulkhead bulkhead,
+                AdaptiveTimeout timeout,
+                Counter coalesced,
+                Counter notModified) {
+            this.circuitBreaker = circuitBreaker;
+            this.bulkhead = bulkhead;
+            this.timeout = timeout;
+            this.coalesced = coalesced;
+            this.notModified = notModified;
+        }
+    }
+}
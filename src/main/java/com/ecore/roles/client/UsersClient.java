@@ -1,37 +1,27 @@
 package com.ecore.roles.client;
 
 import com.ecore.roles.client.model.User;
-import com.ecore.roles.configuration.ClientsConfigurationProperties;
-import lombok.RequiredArgsConstructor;
-import org.springframework.core.ParameterizedTypeReference;
-import org.springframework.http.HttpMethod;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
 import java.util.UUID;
 
-@RequiredArgsConstructor
-@Component
-public class UsersClient {
-
-    private final RestTemplate restTemplate;
-    private final ClientsConfigurationProperties clientsConfigurationProperties;
-
-    public ResponseEntity<User> getUser(UUID id) {
-        return restTemplate.exchange(
-                clientsConfigurationProperties.getUsersApiHost() + "/" + id,
-                HttpMethod.GET,
-                null,
-                User.class);
-    }
-
-    public ResponseEntity<List<User>> getUsers() {
-        return restTemplate.exchange(
-                clientsConfigurationProperties.getUsersApiHost(),
-                HttpMethod.GET,
-                null,
-                new ParameterizedTypeReference<>() {});
-    }
+import static com.ecore.roles.configuration.CacheConfiguration.USERS_CACHE;
+
+/**
+ * Client of the Users API. A user the API does not know is returned as a 404 response with an empty
+ * body rather than as an exception.
+ */
+public interface UsersClient {
+
+    @Cacheable(cacheNames = USERS_CACHE, key = "#id")
+    ResponseEntity<User> getUser(UUID id);
+
+    ResponseEntity<List<User>> getUsers();
+
+    Mono<ResponseEntity<User>> getUserAsync(UUID id);
+
+    Mono<ResponseEntity<List<User>>> getUsersAsync();
 }
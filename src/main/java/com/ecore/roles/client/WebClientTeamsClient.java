@@ -0,0 +1,56 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(prefix = "clients", name = "engine", havingValue = "reactive")
+public class WebClientTeamsClient implements TeamsClient {
+
+    private final WebClient clientsWebClient;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final UpstreamGuard upstreamGuard;
+
+    @Override
+    public ResponseEntity<Team> getTeam(UUID id) {
+        return getTeamAsync(id).block();
+    }
+
+    @Override
+    public ResponseEntity<List<Team>> getTeams() {
+        return getTeamsAsync().block();
+    }
+
+    @Override
+    public Mono<ResponseEntity<Team>> getTeamAsync(UUID id) {
+        return upstreamGuard.callAsync(Upstream.TEAMS, id, () -> clientsWebClient.get()
+                .uri(clientsConfigurationProperties.getTeamsApiHost() + "/" + id)
+                .headers(headers -> headers.addAll(upstreamGuard.validators(Upstream.TEAMS, id)))
+                .retrieve()
+                .toEntity(Team.class)
+                .onErrorResume(WebClientResponseException.NotFound.class,
+                        e -> Mono.just(ResponseEntity.notFound().build())));
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<Team>>> getTeamsAsync() {
+        return upstreamGuard.callAsync(Upstream.TEAMS, UpstreamGuard.ALL, () -> clientsWebClient.get()
+                .uri(clientsConfigurationProperties.getTeamsApiHost())
+                .headers(headers -> headers.addAll(
+                        upstreamGuard.validators(Upstream.TEAMS, UpstreamGuard.ALL)))
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<List<Team>>() {}));
+    }
+}
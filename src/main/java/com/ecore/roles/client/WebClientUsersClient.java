@@ -0,0 +1,56 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.client.model.User;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(prefix = "clients", name = "engine", havingValue = "reactive")
+public class WebClientUsersClient implements UsersClient {
+
+    private final WebClient clientsWebClient;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final UpstreamGuard upstreamGuard;
+
+    @Override
+    public ResponseEntity<User> getUser(UUID id) {
+        return getUserAsync(id).block();
+    }
+
+    @Override
+    public ResponseEntity<List<User>> getUsers() {
+        return getUsersAsync().block();
+    }
+
+    @Override
+    public Mono<ResponseEntity<User>> getUserAsync(UUID id) {
+        return upstreamGuard.callAsync(Upstream.USERS, id, () -> clientsWebClient.get()
+                .uri(clientsConfigurationProperties.getUsersApiHost() + "/" + id)
+                .headers(headers -> headers.addAll(upstreamGuard.validators(Upstream.USERS, id)))
+                .retrieve()
+                .toEntity(User.class)
+                .onErrorResume(WebClientResponseException.NotFound.class,
+                        e -> Mono.just(ResponseEntity.notFound().build())));
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<User>>> getUsersAsync() {
+        return upstreamGuard.callAsync(Upstream.USERS, UpstreamGuard.ALL, () -> clientsWebClient.get()
+                .uri(clientsConfigurationProperties.getUsersApiHost())
+                .headers(headers -> headers.addAll(
+                        upstreamGuard.validators(Upstream.USERS, UpstreamGuard.ALL)))
+                .retrieve()
+                .toEntity(new ParameterizedTypeReference<List<User>>() {}));
+    }
+}
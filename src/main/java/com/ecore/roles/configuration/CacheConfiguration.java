@@ -0,0 +1,84 @@
+package com.ecore.roles.configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+@EnableCaching
+@Configuration
+public class CacheConfiguration {
+
+    public static final String USERS_CACHE = "users";
+    public static final String TEAMS_CACHE = "teams";
+
+    @Bean
+    public CacheManager cacheManager(ClientsConfigurationProperties clientsConfigurationProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // only the caches registered below, so that looking up an unknown name does not create one
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(USERS_CACHE,
+                clientCache(clientsConfigurationProperties.getCache().getUsers()));
+        cacheManager.registerCustomCache(TEAMS_CACHE,
+                clientCache(clientsConfigurationProperties.getCache().getTeams()));
+        return cacheManager;
+    }
+
+    private static com.github.benmanes.caffeine.cache.Cache<Object, Object> clientCache(
+            ClientsConfigurationProperties.CacheSpec spec) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfter(new ClientResponseExpiry(spec))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Expires cached upstream responses after the configured TTL, using the shorter negative TTL for
+     * 404 answers so that newly created users and teams become visible quickly.
+     */
+    static class ClientResponseExpiry implements Expiry<Object, Object> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        ClientResponseExpiry(ClientsConfigurationProperties.CacheSpec spec) {
+            this.ttlNanos = spec.getTtl().toNanos();
+            this.negativeTtlNanos = spec.getNegativeTtl().toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(Object key, Object value, long currentTime) {
+            if (value instanceof ResponseEntity
+                    && ((ResponseEntity<?>) value).getStatusCode() == HttpStatus.NOT_FOUND) {
+                return negativeTtlNanos;
+            }
+            return ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(
+                Object key,
+                Object value,
+                long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(
+                Object key,
+                Object value,
+                long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
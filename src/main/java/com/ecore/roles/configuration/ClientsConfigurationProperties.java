@@ -6,6 +6,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @NoArgsConstructor
 @Getter
 @Setter
@@ -17,4 +19,171 @@ public class ClientsConfigurationProperties {
 
     private String teamsApiHost;
 
+    /**
+     * HTTP engine used to call the Users and Teams APIs.
+     */
+    private Engine engine = Engine.BLOCKING;
+
+    /**
+     * Lets concurrent callers asking for the same resource share one upstream call instead of each
+     * issuing their own.
+     */
+    private boolean coalesceRequests = true;
+
+    private final Cache cache = new Cache();
+
+    private final FanOut fanOut = new FanOut();
+
+    private final Http http = new Http();
+
+    private final Replica replica = new Replica();
+
+    private final Resilience resilience = new Resilience();
+
+    public enum Engine {
+        /**
+         * {@code RestTemplate} on the pooled Apache HttpClient, one thread per in-flight call.
+         */
+        BLOCKING,
+        /**
+         * {@code WebClient} on the Reactor Netty event loop.
+         */
+        REACTIVE
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class Cache {
+
+        private CacheSpec users = new CacheSpec();
+
+        private CacheSpec teams = new CacheSpec();
+
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class CacheSpec {
+
+        /**
+         * How long a successfully fetched resource is served from the cache.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * How long a 404 answer from the upstream API is remembered.
+         */
+        private Duration negativeTtl = Duration.ofSeconds(30);
+
+        private long maximumSize = 10_000;
+
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class FanOut {
+
+        /**
+         * Maximum number of upstream requests in flight for bulk lookups, shared by all callers.
+         */
+        private int concurrency = 16;
+
+        /**
+         * Maximum number of ids accepted by a single bulk lookup.
+         */
+        private int maxBatchSize = 500;
+
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class Http {
+
+        private int maxConnectionsTotal = 200;
+
+        private int maxConnectionsPerHost = 50;
+
+        /**
+         * How long an idle pooled connection is kept open when the upstream does not send a Keep-Alive
+         * header.
+         */
+        private Duration keepAlive = Duration.ofSeconds(30);
+
+        private Duration connectTimeout = Duration.ofSeconds(2);
+
+        private Duration readTimeout = Duration.ofSeconds(5);
+
+        /**
+         * How long a request waits for a free connection when the pool is exhausted.
+         */
+        private Duration poolAcquireTimeout = Duration.ofSeconds(1);
+
+        /**
+         * Re-validates pooled connections that have been idle for longer than this before reuse.
+         */
+        private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+        private boolean gzipRequests = false;
+
+        private boolean gzipResponses = true;
+
+        /**
+         * Number of connections opened to each upstream host at startup, 0 disables pre-warming.
+         */
+        private int prewarmConnections = 0;
+
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class Replica {
+
+        /**
+         * Serves teams from a local copy of the Teams API, refreshed in the background, instead of calling
+         * the API on each request.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Delay between the end of a sync and the start of the next one, as an ISO-8601 duration.
+         */
+        private Duration syncInterval = Duration.ofMinutes(5);
+
+    }
+
+    /**
+     * Timeouts and fallbacks around upstream calls. Circuit breakers and bulkheads are configured per
+     * upstream under {@code resilience4j.circuitbreaker.instances} and
+     * {@code resilience4j.bulkhead.instances}, named {@code users} and {@code teams}.
+     */
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class Resilience {
+
+        /**
+         * Lower bound of the adaptive read timeout. The upper bound is {@code clients.http.read-timeout}.
+         */
+        private Duration minTimeout = Duration.ofMillis(200);
+
+        /**
+         * Number of mean latency deviations added to the smoothed latency to get the read timeout.
+         */
+        private double timeoutDeviations = 4;
+
+        /**
+         * How long the last good response of each resource is kept to answer while its upstream is
+         * unavailable.
+         */
+        private Duration staleTtl = Duration.ofHours(24);
+
+        private long staleMaximumSize = 20_000;
+
+    }
+
 }
@@ -0,0 +1,166 @@
+package com.ecore.roles.configuration;
+
+import com.ecore.roles.repository.MembershipRepository;
+import com.ecore.roles.repository.RoleRepository;
+import com.ecore.roles.web.rest.DefaultExceptionHandler;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * Times every call into the controllers, the service implementations, the repositories and the
+ * upstream clients, so the latency of a request can be broken down by layer. Timers publish
+ * percentile histograms and are tagged with the class and method called and with an outcome derived
+ * from the HTTP status the call answered with, or would be answered with when it throws.
+ * <p>
+ * Asynchronous results are timed until they complete. Streamed response bodies are written after
+ * the controller returns and are not part of the controller timing.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class LatencyTimingAspect {
+
+    public static final String CONTROLLER_TIMER = "roles.controller";
+    public static final String SERVICE_TIMER = "roles.service";
+    public static final String REPOSITORY_TIMER = "roles.repository";
+    public static final String CLIENT_TIMER = "roles.client";
+
+    private static final String NO_RESPONSE = "NONE";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("within(com.ecore.roles.web.rest.*RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(CONTROLLER_TIMER, joinPoint, Tags.of("class", className(joinPoint)),
+                LatencyTimingAspect::httpTags);
+    }
+
+    @Around("within(com.ecore.roles.service.impl.*ServiceImpl)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(SERVICE_TIMER, joinPoint, Tags.of("class", className(joinPoint)),
+                LatencyTimingAspect::exceptionTags);
+    }
+
+    @Around("(this(com.ecore.roles.repository.MembershipRepository)"
+            + " || this(com.ecore.roles.repository.RoleRepository))"
+            + " && !execution(* java.lang.Object.*(..))")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        String repository = joinPoint.getThis() instanceof MembershipRepository
+                ? MembershipRepository.class.getSimpleName()
+                : RoleRepository.class.getSimpleName();
+        return time(REPOSITORY_TIMER, joinPoint, Tags.of("repository", repository),
+                LatencyTimingAspect::exceptionTags);
+    }
+
+    @Around("execution(* com.ecore.roles.client.UsersClient.*(..))"
+            + " || execution(* com.ecore.roles.client.TeamsClient.*(..))")
+    public Object timeClient(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(CLIENT_TIMER, joinPoint, Tags.of("class", className(joinPoint)),
+                LatencyTimingAspect::upstreamTags);
+    }
+
+    private Object time(
+            String name,
+            ProceedingJoinPoint joinPoint,
+            Tags tags,
+            BiFunction<Object, Throwable, Tags> outcomeTags) throws Throwable {
+        Tags callTags = tags.and("method", joinPoint.getSignature().getName());
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (Throwable e) {
+            record(name, callTags.and(outcomeTags.apply(null, e)), start);
+            throw e;
+        }
+        if (result instanceof CompletableFuture) {
+            return ((CompletableFuture<?>) result).whenComplete((value, e) -> record(name,
+                    callTags.and(outcomeTags.apply(value, unwrap(e))), start));
+        }
+        if (result instanceof Mono) {
+            return ((Mono<?>) result)
+                    .doOnSuccess(value -> record(name, callTags.and(outcomeTags.apply(value, null)), start))
+                    .doOnError(e -> record(name, callTags.and(outcomeTags.apply(null, e)), start));
+        }
+        record(name, callTags.and(outcomeTags.apply(result, null)), start);
+        return result;
+    }
+
+    private void record(String name, Tags tags, long start) {
+        Timer.builder(name)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Status answered by a controller: the one of its response, or the one the exception handler maps
+     * its exception to.
+     */
+    private static Tags httpTags(Object result, Throwable error) {
+        int status = error != null ? statusOf(error)
+                : result instanceof ResponseEntity ? ((ResponseEntity<?>) result).getStatusCodeValue() : 200;
+        return statusTags(status);
+    }
+
+    /**
+     * Status answered by an upstream API, or {@code NONE} when the call failed without a response.
+     */
+    private static Tags upstreamTags(Object result, Throwable error) {
+        if (error instanceof RestClientResponseException) {
+            return statusTags(((RestClientResponseException) error).getRawStatusCode());
+        }
+        if (error instanceof WebClientResponseException) {
+            return statusTags(((WebClientResponseException) error).getRawStatusCode());
+        }
+        if (error != null) {
+            return Tags.of("outcome", Outcome.UNKNOWN.name(), "status", NO_RESPONSE);
+        }
+        return statusTags(result instanceof ResponseEntity
+                ? ((ResponseEntity<?>) result).getStatusCodeValue()
+                : 200);
+    }
+
+    private static Tags exceptionTags(Object result, Throwable error) {
+        if (error == null) {
+            return Tags.of("outcome", Outcome.SUCCESS.name(), "exception", "none");
+        }
+        return Tags.of("outcome", Outcome.forStatus(statusOf(error)).name(),
+                "exception", error.getClass().getSimpleName());
+    }
+
+    private static Tags statusTags(int status) {
+        return Tags.of("outcome", Outcome.forStatus(status).name(), "status", String.valueOf(status));
+    }
+
+    private static int statusOf(Throwable error) {
+        return error instanceof RuntimeException
+                ? DefaultExceptionHandler.statusOf((RuntimeException) error)
+                : 500;
+    }
+
+    private static String className(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getTarget().getClass().getSimpleName();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,106 @@
+package com.ecore.roles.configuration;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@NoArgsConstructor
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "memberships")
+public class MembershipsConfigurationProperties {
+
+    private final Batch batch = new Batch();
+
+    private final Validation validation = new Validation();
+
+    private final WriteBehind writeBehind = new WriteBehind();
+
+    private final Views views = new Views();
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Maximum number of memberships accepted by a single batch assignment.
+         */
+        private int maxSize = 1000;
+
+        /**
+         * Number of memberships inserted per transaction. A chunk rolled back by a constraint violation is
+         * inserted again one membership at a time, so only the conflicting ones are rejected.
+         */
+        private int chunkSize = 100;
+
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class Validation {
+
+        /**
+         * Rejects memberships whose user is not on the roster of the team.
+         */
+        private boolean enabled = true;
+
+        /**
+         * How long a fetched team roster is used before it is fetched again.
+         */
+        private Duration rosterTtl = Duration.ofMinutes(1);
+
+        private long maximumRosters = 10_000;
+
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class WriteBehind {
+
+        /**
+         * Accepts single role assignments with 202 and a tracking id once validated, and stores them later
+         * in batches, instead of answering once they are stored.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Number of accepted assignments waiting to be stored beyond which new ones are refused with 429.
+         */
+        private int queueCapacity = 10_000;
+
+        /**
+         * Maximum number of queued assignments stored per transaction.
+         */
+        private int batchSize = 500;
+
+        /**
+         * How long the outcome of a stored or rejected assignment can be looked up.
+         */
+        private Duration statusTtl = Duration.ofMinutes(10);
+
+        private long maximumStatuses = 100_000;
+
+    }
+
+    @NoArgsConstructor
+    @Getter
+    @Setter
+    public static class Views {
+
+        /**
+         * Keeps every membership in memory, indexed by role, user and team, and serves the membership
+         * searches and exports from there instead of the database.
+         */
+        private boolean enabled = true;
+
+    }
+
+}
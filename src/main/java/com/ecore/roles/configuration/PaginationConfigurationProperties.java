@@ -0,0 +1,41 @@
+package com.ecore.roles.configuration;
+
+import com.ecore.roles.exception.InvalidArgumentException;
+import com.ecore.roles.model.KeysetPage;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@NoArgsConstructor
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "pagination")
+public class PaginationConfigurationProperties {
+
+    /**
+     * Page size of the listings when the caller does not ask for one.
+     */
+    private int defaultPageSize = 100;
+
+    /**
+     * Largest page size served, bigger requests are capped to it.
+     */
+    private int maxPageSize = 1000;
+
+    /**
+     * Page size to serve for the one requested by the caller, {@code null} meaning the default.
+     */
+    public int resolvePageSize(Integer requested) {
+        if (requested == null) {
+            return defaultPageSize;
+        }
+        if (requested < 1) {
+            throw new InvalidArgumentException(KeysetPage.class, "The page size must be at least 1.");
+        }
+        return Math.min(requested, maxPageSize);
+    }
+
+}
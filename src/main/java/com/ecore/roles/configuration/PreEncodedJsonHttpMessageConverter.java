@@ -0,0 +1,48 @@
+package com.ecore.roles.configuration;
+
+import com.ecore.roles.web.dto.PreEncodedJson;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link PreEncodedJson} response body by copying its stored bytes, skipping
+ * serialization.
+ */
+public class PreEncodedJsonHttpMessageConverter extends AbstractHttpMessageConverter<PreEncodedJson<?>> {
+
+    public PreEncodedJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return PreEncodedJson.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected PreEncodedJson<?> readInternal(
+            Class<? extends PreEncodedJson<?>> clazz,
+            HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Pre-encoded JSON is write only", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(PreEncodedJson<?> body, MediaType contentType) {
+        return (long) body.getJson().length;
+    }
+
+    @Override
+    protected void writeInternal(PreEncodedJson<?> body, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(body.getJson());
+    }
+}
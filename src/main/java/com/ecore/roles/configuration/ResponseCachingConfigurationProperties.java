@@ -0,0 +1,45 @@
+package com.ecore.roles.configuration;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * {@code Cache-Control} of the GET read endpoints. Every response also carries a strong ETag, so a
+ * cache holding an expired response revalidates it with a conditional request.
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "response-caching")
+public class ResponseCachingConfigurationProperties {
+
+    /**
+     * How long roles and role lookups may be served from a cache without revalidation.
+     */
+    private Duration roles = Duration.ofMinutes(1);
+
+    /**
+     * How long membership listings may be served from a cache without revalidation. Zero makes caches
+     * revalidate every time, so new assignments show up immediately.
+     */
+    private Duration memberships = Duration.ZERO;
+
+    private Duration users = Duration.ofMinutes(1);
+
+    private Duration teams = Duration.ofMinutes(1);
+
+    public static CacheControl cacheControl(Duration maxAge) {
+        if (maxAge.isZero() || maxAge.isNegative()) {
+            return CacheControl.noCache();
+        }
+        return CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+}
@@ -1,14 +1,118 @@
 package com.ecore.roles.configuration;
 
+import com.ecore.roles.client.UpstreamGuard;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blocking upstream clients, the default {@code clients.engine}: a {@code RestTemplate} on a pooled
+ * Apache HttpClient configured by {@code clients.http}.
+ */
 @Configuration
+@ConditionalOnProperty(prefix = "clients", name = "engine", havingValue = "blocking", matchIfMissing = true)
 public class RestTemplateConfiguration {
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(
+            RestTemplateBuilder builder,
+            CloseableHttpClient clientsHttpClient,
+            UpstreamGuard upstreamGuard,
+            ClientsConfigurationProperties clientsConfigurationProperties) {
+        RequestConfig defaultRequestConfig = requestConfig(clientsConfigurationProperties.getHttp());
+        RestTemplateBuilder pooledBuilder = builder.requestFactory(() -> {
+            HttpComponentsClientHttpRequestFactory requestFactory =
+                    new HttpComponentsClientHttpRequestFactory(clientsHttpClient);
+            requestFactory.setHttpContextFactory((method, uri) -> upstreamGuard.timeoutFor(uri)
+                    .map(timeout -> adaptiveTimeoutContext(defaultRequestConfig, timeout))
+                    .orElse(null));
+            return requestFactory;
+        });
+        if (clientsConfigurationProperties.getHttp().isGzipRequests()) {
+            pooledBuilder = pooledBuilder.additionalInterceptors(new GzipRequestInterceptor());
+        }
+        return pooledBuilder.build();
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public PoolingHttpClientConnectionManager clientsConnectionManager(
+            ClientsConfigurationProperties clientsConfigurationProperties) {
+        ClientsConfigurationProperties.Http http = clientsConfigurationProperties.getHttp();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(http.getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(http.getMaxConnectionsPerHost());
+        connectionManager.setValidateAfterInactivity((int) http.getValidateAfterInactivity().toMillis());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient clientsHttpClient(
+            PoolingHttpClientConnectionManager clientsConnectionManager,
+            ClientsConfigurationProperties clientsConfigurationProperties) {
+        ClientsConfigurationProperties.Http http = clientsConfigurationProperties.getHttp();
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(clientsConnectionManager)
+                .setDefaultRequestConfig(requestConfig(http))
+                .setKeepAliveStrategy(keepAliveStrategy(http))
+                .evictExpiredConnections()
+                .evictIdleConnections(http.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS);
+        if (!http.isGzipResponses()) {
+            builder.disableContentCompression();
+        }
         return builder.build();
     }
+
+    @Bean
+    public MeterBinder clientsConnectionPoolMetrics(
+            PoolingHttpClientConnectionManager clientsConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(clientsConnectionManager, "clients");
+    }
+
+    private static RequestConfig requestConfig(ClientsConfigurationProperties.Http http) {
+        return RequestConfig.custom()
+                .setConnectTimeout((int) http.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) http.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout((int) http.getPoolAcquireTimeout().toMillis())
+                .build();
+    }
+
+    /**
+     * Overrides the read timeout of a single request with the current adaptive timeout of its upstream.
+     */
+    private static HttpContext adaptiveTimeoutContext(RequestConfig defaultRequestConfig, Duration timeout) {
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.copy(defaultRequestConfig)
+                .setSocketTimeout((int) timeout.toMillis())
+                .build());
+        return context;
+    }
+
+    /**
+     * Honours the upstream Keep-Alive header and falls back to the configured keep-alive instead of
+     * keeping connections open forever.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy(ClientsConfigurationProperties.Http http) {
+        long defaultKeepAlive = http.getKeepAlive().toMillis();
+        return (response, context) -> {
+            long keepAlive =
+                    DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return keepAlive > 0 ? keepAlive : defaultKeepAlive;
+        };
+    }
 }
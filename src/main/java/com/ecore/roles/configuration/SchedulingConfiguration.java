@@ -0,0 +1,15 @@
+package com.ecore.roles.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the teams replica sync job. Scheduling stays off while the replica is disabled, so no
+ * background calls are made to the Teams API.
+ */
+@EnableScheduling
+@Configuration
+@ConditionalOnProperty(prefix = "clients.replica", name = "enabled", havingValue = "true")
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,35 @@
+package com.ecore.roles.configuration;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sends {@code Vary: Accept} on every response of an endpoint that offers more than one
+ * representation, so that shared caches key its responses by format. It is added before the handler
+ * runs so that 304 and error responses carry it as well. The offered representations are read from
+ * the mapping itself, since the ones Spring MVC exposes on the request are already narrowed to
+ * those the {@code Accept} header matches.
+ */
+public class VaryAcceptInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod && negotiatesFormat((HandlerMethod) handler)
+                && !response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        return true;
+    }
+
+    private static boolean negotiatesFormat(HandlerMethod handler) {
+        RequestMapping mapping =
+                AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), RequestMapping.class);
+        return mapping != null && mapping.produces().length > 1;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ecore.roles.configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Non-blocking counterpart of {@link RestTemplateConfiguration}, used when
+ * {@code clients.engine=reactive}. The Reactor Netty pool honours the same {@code clients.http}
+ * settings.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "clients", name = "engine", havingValue = "reactive")
+public class WebClientConfiguration {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider clientsConnectionProvider(
+            ClientsConfigurationProperties clientsConfigurationProperties) {
+        ClientsConfigurationProperties.Http http = clientsConfigurationProperties.getHttp();
+        return ConnectionProvider.builder("clients")
+                .maxConnections(http.getMaxConnectionsPerHost())
+                .pendingAcquireTimeout(http.getPoolAcquireTimeout())
+                .maxIdleTime(http.getKeepAlive())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient clientsWebClient(
+            WebClient.Builder builder,
+            ConnectionProvider clientsConnectionProvider,
+            ClientsConfigurationProperties clientsConfigurationProperties) {
+        ClientsConfigurationProperties.Http http = clientsConfigurationProperties.getHttp();
+        HttpClient httpClient = HttpClient.create(clientsConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getReadTimeout())
+                .compress(http.isGzipResponses());
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
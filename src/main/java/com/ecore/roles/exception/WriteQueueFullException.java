@@ -0,0 +1,11 @@
+package com.ecore.roles.exception;
+
+import static java.lang.String.format;
+
+public class WriteQueueFullException extends RuntimeException {
+
+    public <T> WriteQueueFullException(Class<T> resource, int capacity) {
+        super(format("%s write queue is full with %d pending writes, retry later", resource.getSimpleName(),
+                capacity));
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.MembershipRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index answering "which role does user U have in team T?" without touching the database.
+ * It is loaded at startup and kept up to date by the membership write path, including while it
+ * reloads. The memberships are held in a {@link MembershipTable}, a few dozen bytes each, so that
+ * millions of them fit, and read from the id columns only, their roles resolved through the
+ * {@link RoleCatalog}.
+ */
+@Log4j2
+@Component
+public class MembershipIndex {
+
+    private final MembershipRepository membershipRepository;
+    private final RoleCatalog roleCatalog;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Object lock = new Object();
+    private volatile MembershipTable table = new MembershipTable(0);
+    /**
+     * Memberships written while a reload reads the database, applied to the new table before it is
+     * swapped in. Guarded by {@link #lock}.
+     */
+    private List<Membership> writtenWhileLoading;
+
+    @Autowired
+    public MembershipIndex(
+            MembershipRepository membershipRepository,
+            RoleCatalog roleCatalog,
+            PlatformTransactionManager transactionManager) {
+        this.membershipRepository = membershipRepository;
+        this.roleCatalog = roleCatalog;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        synchronized (lock) {
+            writtenWhileLoading = new ArrayList<>();
+        }
+        MembershipTable loaded = new MembershipTable((int) membershipRepository.count());
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<MembershipIds> stored = membershipRepository.streamAllIds()) {
+                    stored.forEach(ids -> loaded.put(ids.getUserId(), ids.getTeamId(), roleOf(ids)));
+                }
+            });
+            synchronized (lock) {
+                writtenWhileLoading.forEach(membership -> loaded.put(membership.getUserId(),
+                        membership.getTeamId(), membership.getRole()));
+                table = loaded;
+            }
+        } finally {
+            synchronized (lock) {
+                writtenWhileLoading = null;
+            }
+        }
+        log.info("Loaded {} memberships into the membership index, {} KB", loaded.size(),
+                loaded.footprintBytes() / 1024);
+    }
+
+    public Optional<Role> findRole(UUID userId, UUID teamId) {
+        return Optional.ofNullable(table.find(userId, teamId));
+    }
+
+    public void put(UUID userId, UUID teamId, Role role) {
+        synchronized (lock) {
+            table.put(userId, teamId, role);
+            if (writtenWhileLoading != null) {
+                writtenWhileLoading
+                        .add(Membership.builder().userId(userId).teamId(teamId).role(role).build());
+            }
+        }
+    }
+
+    /**
+     * Hands the user and team ids of every member of the role to {@code visitor}, scanning the whole
+     * index.
+     */
+    public void forEachOfRole(UUID roleId, MembershipTable.Visitor visitor) {
+        table.forEachOfRole(roleId, visitor);
+    }
+
+    private Role roleOf(MembershipIds ids) {
+        return roleCatalog.findById(ids.getRoleId())
+                .orElseThrow(() -> new IllegalStateException(
+                        "Role " + ids.getRoleId() + " of membership " + ids.getId()
+                                + " is not in the role catalog"));
+    }
+
+    public int size() {
+        return table.size();
+    }
+
+    public long footprintBytes() {
+        return table.footprintBytes();
+    }
+}
@@ -0,0 +1,288 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.model.Role;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressed hash table from (user, team) to role, laid out in primitive arrays so that a
+ * membership costs about 50 bytes however many there are, instead of the few hundred bytes of a
+ * {@code HashMap} entry with its boxed key and UUIDs.
+ * <p>
+ * Each slot takes four consecutive longs of {@code keys}, the most and least significant bits of
+ * the user id then of the team id, and a short of {@code ordinals}: the position of the role in the
+ * role table plus one, zero marking an empty slot. Collisions are resolved by linear probing, and
+ * the table doubles once it is {@value #MAX_LOAD} full. Memberships are never removed; a reload
+ * builds a new table.
+ * <p>
+ * Lookups are allocation free and lock free: they read optimistically and only fall back to the
+ * read lock when a write overlapped them. Writes are serialized by the write lock.
+ */
+public final class MembershipTable {
+
+    private static final double MAX_LOAD = 0.75;
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 28;
+    private static final int LONGS_PER_SLOT = 4;
+    private static final long ARRAY_HEADER_BYTES = 16;
+    private static final long REFERENCE_BYTES = 8;
+
+    private final StampedLock lock = new StampedLock();
+
+    /**
+     * Replaced as a whole when the table grows, so a reader always sees arrays of matching sizes.
+     */
+    private Slots slots;
+    private int size;
+    private Role[] roles = new Role[8];
+    private int roleCount;
+    private final Map<UUID, Short> ordinals = new HashMap<>();
+
+    public MembershipTable(int expectedSize) {
+        slots = new Slots(capacityFor(expectedSize));
+    }
+
+    /**
+     * Returns the role of the user in the team, or {@code null} when there is none.
+     */
+    public Role find(UUID userId, UUID teamId) {
+        return find(userId.getMostSignificantBits(), userId.getLeastSignificantBits(),
+                teamId.getMostSignificantBits(), teamId.getLeastSignificantBits());
+    }
+
+    public Role find(long userMsb, long userLsb, long teamMsb, long teamLsb) {
+        long stamp = lock.tryOptimisticRead();
+        Role role = roleAt(ordinal(slots, userMsb, userLsb, teamMsb, teamLsb));
+        if (lock.validate(stamp)) {
+            return role;
+        }
+        stamp = lock.readLock();
+        try {
+            return roleAt(ordinal(slots, userMsb, userLsb, teamMsb, teamLsb));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Sets the role of the user in the team, replacing the one it had.
+     *
+     * @throws IllegalStateException when the role would be the 32768th distinct one
+     */
+    public void put(UUID userId, UUID teamId, Role role) {
+        long stamp = lock.writeLock();
+        try {
+            short ordinal = ordinalOf(role);
+            if (insert(slots, userId.getMostSignificantBits(), userId.getLeastSignificantBits(),
+                    teamId.getMostSignificantBits(), teamId.getLeastSignificantBits(), ordinal)) {
+                size++;
+                if (size > slots.capacity() * MAX_LOAD) {
+                    slots = grow(slots);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Hands the user and team ids of every membership with the given role to {@code visitor}, as
+     * primitives, by scanning the whole table. Holds the read lock meanwhile, so writes wait for it.
+     */
+    public void forEachOfRole(UUID roleId, Visitor visitor) {
+        long stamp = lock.readLock();
+        try {
+            Short ordinal = ordinals.get(roleId);
+            if (ordinal == null) {
+                return;
+            }
+            short[] slotOrdinals = slots.ordinals;
+            long[] keys = slots.keys;
+            for (int slot = 0; slot < slotOrdinals.length; slot++) {
+                if (slotOrdinals[slot] == ordinal) {
+                    int key = slot * LONGS_PER_SLOT;
+                    visitor.visit(keys[key], keys[key + 1], keys[key + 2], keys[key + 3]);
+                }
+            }
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the bytes taken by the slot arrays and the role table, leaving out the roles themselves,
+     * which are shared with the rest of the application.
+     */
+    public long footprintBytes() {
+        long stamp = lock.readLock();
+        try {
+            return ARRAY_HEADER_BYTES + (long) slots.keys.length * Long.BYTES
+                    + ARRAY_HEADER_BYTES + (long) slots.ordinals.length * Short.BYTES
+                    + ARRAY_HEADER_BYTES + (long) roles.length * REFERENCE_BYTES;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private Role roleAt(int ordinal) {
+        Role[] table = roles;
+        return ordinal == 0 || ordinal > table.length ? null : table[ordinal - 1];
+    }
+
+    private short ordinalOf(Role role) {
+        Short ordinal = ordinals.get(role.getId());
+        if (ordinal != null) {
+            return ordinal;
+        }
+        if (roleCount == Short.MAX_VALUE) {
+            throw new IllegalStateException(
+                    "More than " + Short.MAX_VALUE + " roles in the membership table");
+        }
+        if (roleCount == roles.length) {
+            roles = Arrays.copyOf(roles, Math.min(roles.length * 2, Short.MAX_VALUE));
+        }
+        roles[roleCount++] = Role.builder()
+                .id(role.getId())
+                .name(role.getName())
+                .build();
+        ordinal = (short) roleCount;
+        ordinals.put(role.getId(), ordinal);
+        return ordinal;
+    }
+
+    /**
+     * Returns the ordinal stored in the slot of the key, or zero when it is absent. Bounded by the
+     * capacity, so a read racing a write cannot loop forever; the stamp validation discards its result.
+     */
+    private static int ordinal(Slots slots, long userMsb, long userLsb, long teamMsb, long teamLsb) {
+        long[] keys = slots.keys;
+        short[] slotOrdinals = slots.ordinals;
+        int capacity = slotOrdinals.length;
+        int slot = slotOf(hash(userMsb, userLsb, teamMsb, teamLsb), capacity);
+        for (int probes = 0; probes < capacity; probes++) {
+            short ordinal = slotOrdinals[slot];
+            if (ordinal == 0) {
+                return 0;
+            }
+            int key = slot * LONGS_PER_SLOT;
+            if (keys[key] == userMsb && keys[key + 1] == userLsb
+                    && keys[key + 2] == teamMsb && keys[key + 3] == teamLsb) {
+                return ordinal;
+            }
+            slot = slot + 1 == capacity ? 0 : slot + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Stores the ordinal in the slot of the key and returns whether the key is new.
+     */
+    private static boolean insert(
+            Slots slots,
+            long userMsb,
+            long userLsb,
+            long teamMsb,
+            long teamLsb,
+            short ordinal) {
+        long[] keys = slots.keys;
+        short[] slotOrdinals = slots.ordinals;
+        int capacity = slotOrdinals.length;
+        int slot = slotOf(hash(userMsb, userLsb, teamMsb, teamLsb), capacity);
+        while (true) {
+            int key = slot * LONGS_PER_SLOT;
+            if (slotOrdinals[slot] == 0) {
+                keys[key] = userMsb;
+                keys[key + 1] = userLsb;
+                keys[key + 2] = teamMsb;
+                keys[key + 3] = teamLsb;
+                slotOrdinals[slot] = ordinal;
+                return true;
+            }
+            if (keys[key] == userMsb && keys[key + 1] == userLsb
+                    && keys[key + 2] == teamMsb && keys[key + 3] == teamLsb) {
+                slotOrdinals[slot] = ordinal;
+                return false;
+            }
+            slot = slot + 1 == capacity ? 0 : slot + 1;
+        }
+    }
+
+    private static Slots grow(Slots slots) {
+        if (slots.capacity() == MAX_CAPACITY) {
+            throw new IllegalStateException(
+                    "The membership table cannot grow beyond " + MAX_CAPACITY + " slots");
+        }
+        Slots grown = new Slots((int) Math.min((long) slots.capacity() * 2, MAX_CAPACITY));
+        long[] keys = slots.keys;
+        for (int slot = 0; slot < slots.ordinals.length; slot++) {
+            short ordinal = slots.ordinals[slot];
+            if (ordinal != 0) {
+                int key = slot * LONGS_PER_SLOT;
+                insert(grown, keys[key], keys[key + 1], keys[key + 2], keys[key + 3], ordinal);
+            }
+        }
+        return grown;
+    }
+
+    /**
+     * Mixes the four halves of the two ids. Random UUIDs are already well spread, but the table must
+     * not degrade when callers use sequential or hand-made ids.
+     */
+    private static int hash(long userMsb, long userLsb, long teamMsb, long teamLsb) {
+        long h = userMsb * 0x9E3779B97F4A7C15L;
+        h = (h ^ userLsb) * 0xC2B2AE3D27D4EB4FL;
+        h = (h ^ teamMsb) * 0x165667B19E3779F9L;
+        h = (h ^ teamLsb) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Maps a hash to a slot with a multiplication and a shift, which spreads it over any capacity
+     * without the division of a modulo.
+     */
+    private static int slotOf(int hash, int capacity) {
+        return (int) (((hash & 0xFFFFFFFFL) * capacity) >>> 32);
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long capacity = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / MAX_LOAD) + 1);
+        if (capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many memberships for one table: " + expectedSize);
+        }
+        return (int) capacity;
+    }
+
+    @FunctionalInterface
+    public interface Visitor {
+
+        void visit(long userMsb, long userLsb, long teamMsb, long teamLsb);
+    }
+
+    private static final class Slots {
+
+        private final long[] keys;
+        private final short[] ordinals;
+
+        private Slots(int capacity) {
+            this.keys = new long[capacity * LONGS_PER_SLOT];
+            this.ordinals = new short[capacity];
+        }
+
+        private int capacity() {
+            return ordinals.length;
+        }
+    }
+}
@@ -0,0 +1,352 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipKey;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.MembershipRepository;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory materialized views of all memberships: the members of each role ordered by membership
+ * id, the (team, role) pairs of each user and the (user, role) pairs of each team. The membership
+ * read endpoints are served from them instead of the database once they are loaded.
+ * <p>
+ * They are loaded at startup and then follow the write path through
+ * {@link MembershipsAssignedEvent}, applied once the transaction that stored the memberships
+ * commits, so a rolled back write is never visible. {@link #check} compares them with the database
+ * on demand.
+ */
+@Log4j2
+@Component
+public class MembershipViews {
+
+    /**
+     * Order of membership ids in the views, the one of the binary(16) id column in the database, so
+     * page tokens seek to the same place whichever of the two serves a page.
+     */
+    public static final Comparator<UUID> ID_ORDER = Comparator
+            .comparing(UUID::getMostSignificantBits, Long::compareUnsigned)
+            .thenComparing(UUID::getLeastSignificantBits, Long::compareUnsigned);
+
+    private static final String MISSING = "missing";
+    private static final String UNEXPECTED = "unexpected";
+    private static final String MISMATCHED = "mismatched";
+    private static final int MAX_SAMPLES = 20;
+    private static final int MAX_RECHECKS = 1_000;
+
+    private final MembershipRepository membershipRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    private final Object lock = new Object();
+    private volatile Views views;
+    /**
+     * Memberships assigned while a reload reads the database, applied to the new views before they are
+     * swapped in. Guarded by {@link #lock}.
+     */
+    private List<Membership> assignedWhileLoading;
+
+    @Autowired
+    public MembershipViews(
+            MembershipRepository membershipRepository,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            MembershipsConfigurationProperties membershipsConfigurationProperties) {
+        this.membershipRepository = membershipRepository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = membershipsConfigurationProperties.getViews().isEnabled();
+    }
+
+    @PostConstruct
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (lock) {
+            assignedWhileLoading = new ArrayList<>();
+        }
+        Views loaded = new Views();
+        try {
+            forEachStored(loaded::add);
+        } finally {
+            synchronized (lock) {
+                assignedWhileLoading.forEach(loaded::add);
+                assignedWhileLoading = null;
+            }
+        }
+        synchronized (lock) {
+            views = loaded;
+        }
+        log.info("Loaded {} memberships into the membership views", loaded.size());
+    }
+
+    /**
+     * Returns whether the views are enabled and loaded; until then reads have to go to the database.
+     */
+    public boolean isReady() {
+        return views != null;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssigned(MembershipsAssignedEvent event) {
+        synchronized (lock) {
+            Views current = views;
+            for (Membership membership : event.getMemberships()) {
+                if (current != null) {
+                    current.add(membership);
+                }
+                if (assignedWhileLoading != null) {
+                    assignedWhileLoading.add(membership);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} memberships of the role in {@link #ID_ORDER}, starting after
+     * {@code afterId} or at the first one when it is {@code null}.
+     */
+    public List<Membership> findByRoleId(UUID roleId, UUID afterId, int limit) {
+        ConcurrentNavigableMap<UUID, Membership> members = loaded().byRole.get(roleId);
+        if (members == null) {
+            return List.of();
+        }
+        return (afterId == null ? members : members.tailMap(afterId, false)).values().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<Membership> find(UUID userId, UUID teamId) {
+        return Optional.ofNullable(loaded().find(userId, teamId));
+    }
+
+    /**
+     * Hands every membership of the given role and/or team, or every membership when both are
+     * {@code null}, to {@code consumer}.
+     */
+    public void forEach(UUID roleId, UUID teamId, Consumer<Membership> consumer) {
+        Views current = loaded();
+        Collection<Membership> candidates;
+        if (teamId != null) {
+            candidates = current.byTeam.getOrDefault(teamId, Map.of()).values();
+        } else if (roleId != null) {
+            candidates = current.byRole.getOrDefault(roleId, emptyMembers()).values();
+        } else {
+            current.byRole.values().forEach(members -> members.values().forEach(consumer));
+            return;
+        }
+        for (Membership membership : candidates) {
+            if (roleId == null || roleId.equals(membership.getRole().getId())) {
+                consumer.accept(membership);
+            }
+        }
+    }
+
+    public int size() {
+        Views current = views;
+        return current == null ? 0 : current.size();
+    }
+
+    /**
+     * Compares the views with the database: every stored membership has to be in all three views with
+     * the same id and role, and nothing else may be. Up to a thousand discrepancies are looked up again
+     * before they are reported, so that a membership committed while the check ran does not count. When
+     * {@code repair} is set and the views are found inconsistent, they are reloaded.
+     */
+    public ConsistencyReport check(boolean repair) {
+        Views current = loaded();
+        Set<UUID> storedIds = new HashSet<>();
+        Map<MembershipKey, String> suspects = new LinkedHashMap<>();
+        long[] stored = {0};
+        forEachStored(membership -> {
+            stored[0]++;
+            storedIds.add(membership.getId());
+            if (!current.contains(membership)) {
+                suspects.put(MembershipKey.of(membership),
+                        current.find(membership.getUserId(), membership.getTeamId()) == null ? MISSING
+                                : MISMATCHED);
+            }
+        });
+        current.byUser.values().forEach(teams -> teams.values().forEach(membership -> {
+            if (!storedIds.contains(membership.getId())) {
+                suspects.putIfAbsent(MembershipKey.of(membership), UNEXPECTED);
+            }
+        }));
+
+        boolean recheck = suspects.size() <= MAX_RECHECKS;
+        Map<String, Integer> problems = new HashMap<>();
+        List<String> samples = new ArrayList<>();
+        for (Map.Entry<MembershipKey, String> suspect : suspects.entrySet()) {
+            MembershipKey key = suspect.getKey();
+            String problem = recheck ? recheck(current, key) : suspect.getValue();
+            if (problem == null) {
+                continue;
+            }
+            problems.merge(problem, 1, Integer::sum);
+            if (samples.size() < MAX_SAMPLES) {
+                samples.add(String.format("%s user %s team %s", problem, key.getUserId(), key.getTeamId()));
+            }
+        }
+        boolean consistent = problems.isEmpty();
+        if (!consistent) {
+            log.warn("Membership views are inconsistent with the database: {}", problems);
+        }
+        boolean repaired = !consistent && repair;
+        if (repaired) {
+            reload();
+        }
+        return ConsistencyReport.builder()
+                .stored(stored[0])
+                .viewed(current.size())
+                .missing(problems.getOrDefault(MISSING, 0))
+                .unexpected(problems.getOrDefault(UNEXPECTED, 0))
+                .mismatched(problems.getOrDefault(MISMATCHED, 0))
+                .samples(samples)
+                .consistent(consistent)
+                .repaired(repaired)
+                .build();
+    }
+
+    /**
+     * Looks a suspect pair up again in the database and in the views, returning what is still wrong
+     * with it or {@code null} when they agree by now.
+     */
+    private String recheck(Views current, MembershipKey key) {
+        Membership stored = membershipRepository.findByUserIdAndTeamId(key.getUserId(), key.getTeamId())
+                .orElse(null);
+        Membership viewed = current.find(key.getUserId(), key.getTeamId());
+        if (stored == null) {
+            return viewed == null ? null : UNEXPECTED;
+        }
+        if (viewed == null) {
+            return MISSING;
+        }
+        return current.contains(stored) ? null : MISMATCHED;
+    }
+
+    /**
+     * Streams every stored membership from a read-only transaction, detaching each once it is handed
+     * over so the persistence context does not grow with the table.
+     */
+    private void forEachStored(Consumer<Membership> consumer) {
+        readOnlyTransaction
+                .executeWithoutResult(status -> membershipRepository.streamByRoleIdAndTeamId(null, null)
+                        .forEach(membership -> {
+                            consumer.accept(membership);
+                            entityManager.detach(membership);
+                        }));
+    }
+
+    private Views loaded() {
+        Views current = views;
+        if (current == null) {
+            throw new IllegalStateException("Membership views are not loaded");
+        }
+        return current;
+    }
+
+    private static ConcurrentNavigableMap<UUID, Membership> emptyMembers() {
+        return new ConcurrentSkipListMap<>(ID_ORDER);
+    }
+
+    /**
+     * The three views over the same immutable membership snapshots. Only added to under {@link #lock},
+     * read without locking.
+     */
+    private static final class Views {
+
+        private final Map<UUID, Role> roles = new ConcurrentHashMap<>();
+        private final Map<UUID, ConcurrentNavigableMap<UUID, Membership>> byRole = new ConcurrentHashMap<>();
+        private final Map<UUID, Map<UUID, Membership>> byUser = new ConcurrentHashMap<>();
+        private final Map<UUID, Map<UUID, Membership>> byTeam = new ConcurrentHashMap<>();
+        private volatile int size;
+
+        private void add(Membership membership) {
+            Role role = roles.computeIfAbsent(membership.getRole().getId(), id -> Role.builder()
+                    .id(id)
+                    .name(membership.getRole().getName())
+                    .build());
+            Membership snapshot = Membership.builder()
+                    .id(membership.getId())
+                    .userId(membership.getUserId())
+                    .teamId(membership.getTeamId())
+                    .role(role)
+                    .build();
+            Membership previous =
+                    byUser.computeIfAbsent(snapshot.getUserId(), id -> new ConcurrentHashMap<>())
+                            .put(snapshot.getTeamId(), snapshot);
+            if (previous == null) {
+                size++;
+            } else {
+                byRole.get(previous.getRole().getId()).remove(previous.getId());
+            }
+            byTeam.computeIfAbsent(snapshot.getTeamId(), id -> new ConcurrentHashMap<>())
+                    .put(snapshot.getUserId(), snapshot);
+            byRole.computeIfAbsent(role.getId(), id -> emptyMembers())
+                    .put(snapshot.getId(), snapshot);
+        }
+
+        private Membership find(UUID userId, UUID teamId) {
+            return byUser.getOrDefault(userId, Map.of()).get(teamId);
+        }
+
+        private boolean contains(Membership stored) {
+            Membership viewed = find(stored.getUserId(), stored.getTeamId());
+            return viewed != null
+                    && viewed.getId().equals(stored.getId())
+                    && viewed.getRole().getId().equals(stored.getRole().getId())
+                    && byTeam.getOrDefault(viewed.getTeamId(), Map.of()).get(viewed.getUserId()) == viewed
+                    && byRole.getOrDefault(viewed.getRole().getId(), emptyMembers())
+                            .get(viewed.getId()) == viewed;
+        }
+
+        private int size() {
+            return size;
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class ConsistencyReport {
+
+        private final long stored;
+        private final int viewed;
+        private final int missing;
+        private final int unexpected;
+        private final int mismatched;
+        private final List<String> samples;
+        private final boolean consistent;
+        private final boolean repaired;
+
+    }
+}
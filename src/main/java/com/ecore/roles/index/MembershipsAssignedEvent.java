@@ -0,0 +1,19 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.model.Membership;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Published by the membership write path with the memberships it stored. When it is published
+ * inside a transaction, {@link MembershipViews} only applies it once that transaction commits.
+ */
+@RequiredArgsConstructor
+@Getter
+public class MembershipsAssignedEvent {
+
+    private final List<Membership> memberships;
+
+}
@@ -0,0 +1,144 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.model.KeysetPage;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copy-on-write catalog of all roles, indexed by id and by name. Readers work on an immutable
+ * snapshot without locking or touching the database; writers build a new snapshot and swap it in
+ * atomically.
+ */
+@Log4j2
+@RequiredArgsConstructor
+@Component
+public class RoleCatalog {
+
+    private static final Comparator<Role> BY_ID = Comparator.comparing(Role::getId);
+
+    private final RoleRepository roleRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(new Snapshot(List.of()));
+
+    @PostConstruct
+    public synchronized void reload() {
+        snapshot.set(new Snapshot(roleRepository.findAll()));
+        log.info("Loaded {} roles into the role catalog", snapshot.get().ordered.size());
+    }
+
+    public Optional<Role> findById(UUID id) {
+        return Optional.ofNullable(snapshot.get().byId.get(id));
+    }
+
+    public Optional<Role> findByName(String name) {
+        return Optional.ofNullable(snapshot.get().byName.get(name));
+    }
+
+    /**
+     * Returns the roles among the given ids, keyed by id; unknown ids are left out.
+     */
+    public Map<UUID, Role> findAllById(Collection<UUID> ids) {
+        Map<UUID, Role> byId = snapshot.get().byId;
+        Map<UUID, Role> found = new HashMap<>();
+        for (UUID id : ids) {
+            Role role = byId.get(id);
+            if (role != null) {
+                found.put(id, role);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns up to {@code pageSize} roles ordered by id, starting after {@code afterId} or at the
+     * first role when it is {@code null}. The first page of a snapshot is built once and then returned
+     * as the same instance until the catalog changes.
+     */
+    public KeysetPage<Role> page(UUID afterId, int pageSize) {
+        Snapshot current = snapshot.get();
+        if (afterId == null) {
+            return current.firstPage(pageSize);
+        }
+        return current.page(afterId, pageSize);
+    }
+
+    /**
+     * Adds or replaces a role after it has been stored.
+     */
+    public synchronized void put(Role role) {
+        List<Role> roles = new ArrayList<>(snapshot.get().ordered);
+        roles.removeIf(existing -> existing.getId().equals(role.getId()));
+        roles.add(role);
+        snapshot.set(new Snapshot(roles));
+    }
+
+    public int size() {
+        return snapshot.get().ordered.size();
+    }
+
+    private static Role copyOf(Role role) {
+        return Role.builder()
+                .id(role.getId())
+                .name(role.getName())
+                .build();
+    }
+
+    private static final class Snapshot {
+
+        private final List<Role> ordered;
+        private final Map<UUID, Role> byId;
+        private final Map<String, Role> byName;
+        private volatile KeysetPage<Role> firstPage;
+
+        private Snapshot(Collection<Role> roles) {
+            List<Role> ordered = new ArrayList<>(roles.size());
+            Map<UUID, Role> byId = new HashMap<>();
+            Map<String, Role> byName = new HashMap<>();
+            for (Role role : roles) {
+                Role copy = copyOf(role);
+                ordered.add(copy);
+                byId.put(copy.getId(), copy);
+                byName.put(copy.getName(), copy);
+            }
+            ordered.sort(BY_ID);
+            this.ordered = Collections.unmodifiableList(ordered);
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byName = Collections.unmodifiableMap(byName);
+        }
+
+        private KeysetPage<Role> firstPage(int pageSize) {
+            KeysetPage<Role> page = firstPage;
+            if (page == null || page.getItems().size() != Math.min(pageSize, ordered.size())) {
+                page = slice(0, pageSize);
+                firstPage = page;
+            }
+            return page;
+        }
+
+        private KeysetPage<Role> page(UUID afterId, int pageSize) {
+            int position = Collections.binarySearch(ordered, Role.builder().id(afterId).build(), BY_ID);
+            int from = position >= 0 ? position + 1 : -position - 1;
+            return slice(from, pageSize);
+        }
+
+        private KeysetPage<Role> slice(int from, int pageSize) {
+            int to = Math.min(ordered.size(), from + pageSize + 1);
+            return KeysetPage.of(ordered.subList(Math.min(from, to), to), pageSize, Role::getId);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.service.TeamsService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of team rosters held as hash sets of member ids and the team lead id, so checking that a
+ * user belongs to a team is a set lookup instead of an upstream call and a scan of
+ * {@link Team#getTeamMemberIds()}. Rosters are fetched through {@link TeamsService} on first use
+ * and expire after {@code memberships.validation.roster-ttl}.
+ */
+@Component
+public class TeamRosterIndex {
+
+    public static final String VALIDATION_TIMER = "memberships.roster.validation";
+
+    private final TeamsService teamsService;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final MeterRegistry meterRegistry;
+    private final Cache<UUID, Set<UUID>> rosters;
+
+    @Autowired
+    public TeamRosterIndex(
+            TeamsService teamsService,
+            MembershipsConfigurationProperties membershipsConfigurationProperties,
+            ClientsConfigurationProperties clientsConfigurationProperties,
+            MeterRegistry meterRegistry) {
+        MembershipsConfigurationProperties.Validation validation =
+                membershipsConfigurationProperties.getValidation();
+        this.teamsService = teamsService;
+        this.clientsConfigurationProperties = clientsConfigurationProperties;
+        this.meterRegistry = meterRegistry;
+        this.rosters = Caffeine.newBuilder()
+                .maximumSize(validation.getMaximumRosters())
+                .expireAfterWrite(validation.getRosterTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rosters, "team-rosters");
+    }
+
+    /**
+     * Returns whether the user is on the roster of the team, fetching the roster when it is not cached.
+     *
+     * @throws ResourceNotFoundException when the Teams API does not know the team
+     */
+    public boolean isMember(UUID teamId, UUID userId) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            boolean member = rosters.get(teamId, this::fetch).contains(userId);
+            outcome = member ? "member" : "not_member";
+            return member;
+        } catch (ResourceNotFoundException e) {
+            outcome = "unknown_team";
+            throw e;
+        } finally {
+            Timer.builder(VALIDATION_TIMER)
+                    .description("Time taken to check a membership against its team roster")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Fetches the rosters of the given teams that are not cached yet with bulk lookups, so checking a
+     * batch of memberships does not fetch its teams one at a time.
+     */
+    public void preload(Collection<UUID> teamIds) {
+        List<UUID> missing = new ArrayList<>();
+        for (UUID teamId : new LinkedHashSet<>(teamIds)) {
+            if (teamId != null && rosters.getIfPresent(teamId) == null) {
+                missing.add(teamId);
+            }
+        }
+        int chunkSize = clientsConfigurationProperties.getFanOut().getMaxBatchSize();
+        for (int from = 0; from < missing.size(); from += chunkSize) {
+            List<UUID> chunk = missing.subList(from, Math.min(from + chunkSize, missing.size()));
+            for (Team team : teamsService.getTeams(chunk)) {
+                rosters.put(team.getId(), rosterOf(team));
+            }
+        }
+    }
+
+    public void invalidate(UUID teamId) {
+        rosters.invalidate(teamId);
+    }
+
+    public void invalidateAll() {
+        rosters.invalidateAll();
+    }
+
+    public long size() {
+        return rosters.estimatedSize();
+    }
+
+    private Set<UUID> fetch(UUID teamId) {
+        return rosterOf(teamsService.getTeam(teamId));
+    }
+
+    /**
+     * The team lead belongs to the team without being listed among its members.
+     */
+    private static Set<UUID> rosterOf(Team team) {
+        Set<UUID> members = new HashSet<>();
+        if (team.getTeamMemberIds() != null) {
+            members.addAll(team.getTeamMemberIds());
+        }
+        members.add(team.getTeamLeadId());
+        members.remove(null);
+        return Collections.unmodifiableSet(members);
+    }
+}
@@ -0,0 +1,247 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.client.TeamsClient;
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Local copy of the Teams API, refreshed by a background job when {@code clients.replica.enabled}
+ * is set. Each sync pulls the full team list and rebuilds only the teams whose content hash
+ * changed; the others are carried over as they are. Member ids are kept as packed (most, least
+ * significant bits) pairs in a {@code long[]} instead of a list of {@link UUID} objects.
+ */
+@Log4j2
+@Component
+public class TeamsReplica {
+
+    public static final String SYNC_TIMER = "teams.replica.sync";
+    public static final String STALENESS_GAUGE = "teams.replica.staleness";
+
+    private final TeamsClient teamsClient;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final MeterRegistry meterRegistry;
+    private final Counter rebuiltTeams;
+
+    private final AtomicReference<Map<UUID, ReplicatedTeam>> teams = new AtomicReference<>(Map.of());
+    private volatile long lastSyncNanos;
+    private volatile boolean synced;
+
+    @Autowired
+    public TeamsReplica(
+            TeamsClient teamsClient,
+            ClientsConfigurationProperties clientsConfigurationProperties,
+            MeterRegistry meterRegistry) {
+        this.teamsClient = teamsClient;
+        this.clientsConfigurationProperties = clientsConfigurationProperties;
+        this.meterRegistry = meterRegistry;
+        this.rebuiltTeams = Counter.builder("teams.replica.rebuilt")
+                .description("Teams rebuilt by the replica sync because their content changed")
+                .register(meterRegistry);
+        Gauge.builder(STALENESS_GAUGE, this, TeamsReplica::stalenessSeconds)
+                .description("Seconds since the last successful replica sync")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("teams.replica.size", this, replica -> replica.teams.get().size())
+                .description("Teams held by the replica")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether requests are served from the replica: it is enabled and has been synced at least once.
+     * Until then callers fall back to the Teams API.
+     */
+    public boolean isServing() {
+        return synced && clientsConfigurationProperties.getReplica().isEnabled();
+    }
+
+    public Optional<Team> findById(UUID id) {
+        return ofNullable(teams.get().get(id)).map(ReplicatedTeam::toTeam);
+    }
+
+    /**
+     * Returns the replicated teams among the given ids, in request order, skipping unknown ids.
+     */
+    public List<Team> findAllById(Collection<UUID> ids) {
+        Map<UUID, ReplicatedTeam> current = teams.get();
+        List<Team> found = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            ReplicatedTeam team = current.get(id);
+            if (team != null) {
+                found.add(team.toTeam());
+            }
+        }
+        return found;
+    }
+
+    public List<Team> findAll() {
+        Collection<ReplicatedTeam> current = teams.get().values();
+        List<Team> all = new ArrayList<>(current.size());
+        for (ReplicatedTeam team : current) {
+            all.add(team.toTeam());
+        }
+        return all;
+    }
+
+    public int size() {
+        return teams.get().size();
+    }
+
+    /**
+     * Pulls all teams from the Teams API and swaps in a new snapshot. A failed sync keeps the previous
+     * snapshot, which then shows up as growing staleness.
+     */
+    @Scheduled(fixedDelayString = "${clients.replica.sync-interval:PT5M}")
+    public synchronized void sync() {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            List<Team> fetched = ofNullable(teamsClient.getTeams().getBody()).orElse(List.of());
+            Map<UUID, ReplicatedTeam> current = teams.get();
+            Map<UUID, ReplicatedTeam> next = new HashMap<>();
+            int rebuilt = 0;
+            for (Team team : fetched) {
+                if (team == null || team.getId() == null) {
+                    continue;
+                }
+                long hash = contentHash(team);
+                ReplicatedTeam existing = current.get(team.getId());
+                if (existing != null && existing.hash == hash) {
+                    next.put(team.getId(), existing);
+                } else {
+                    next.put(team.getId(), ReplicatedTeam.of(team, hash));
+                    rebuilt++;
+                }
+            }
+            teams.set(Collections.unmodifiableMap(next));
+            lastSyncNanos = System.nanoTime();
+            synced = true;
+            rebuiltTeams.increment(rebuilt);
+            outcome = "success";
+            log.info("Synced {} teams into the teams replica, {} rebuilt", next.size(), rebuilt);
+        } catch (RuntimeException e) {
+            log.warn("Could not sync the teams replica: {}", e.getMessage());
+        } finally {
+            Timer.builder(SYNC_TIMER)
+                    .description("Time taken to pull and index the Teams API")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private double stalenessSeconds() {
+        return synced ? (System.nanoTime() - lastSyncNanos) / 1e9 : Double.NaN;
+    }
+
+    /**
+     * 64-bit hash over every replicated field, used to tell unchanged teams apart without comparing
+     * them field by field against the replica.
+     */
+    static long contentHash(Team team) {
+        long hash = mix(1125899906842597L, team.getId());
+        hash = mix(hash, team.getTeamLeadId());
+        String name = team.getName();
+        hash = 31 * hash + (name == null ? -1 : name.length());
+        if (name != null) {
+            for (int i = 0; i < name.length(); i++) {
+                hash = 31 * hash + name.charAt(i);
+            }
+        }
+        List<UUID> members = team.getTeamMemberIds();
+        hash = 31 * hash + (members == null ? -1 : members.size());
+        if (members != null) {
+            for (UUID member : members) {
+                hash = mix(hash, member);
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, UUID id) {
+        if (id == null) {
+            return 31 * hash - 1;
+        }
+        hash = 31 * hash + id.getMostSignificantBits();
+        return 31 * hash + id.getLeastSignificantBits();
+    }
+
+    private static final class ReplicatedTeam {
+
+        private final UUID id;
+        private final String name;
+        private final UUID teamLeadId;
+        private final long[] members;
+        private final boolean hasMembers;
+        private final long hash;
+
+        private ReplicatedTeam(
+                UUID id,
+                String name,
+                UUID teamLeadId,
+                long[] members,
+                boolean hasMembers,
+                long hash) {
+            this.id = id;
+            this.name = name;
+            this.teamLeadId = teamLeadId;
+            this.members = members;
+            this.hasMembers = hasMembers;
+            this.hash = hash;
+        }
+
+        private static ReplicatedTeam of(Team team, long hash) {
+            List<UUID> memberIds = team.getTeamMemberIds();
+            long[] members = new long[memberIds == null ? 0 : memberIds.size() * 2];
+            int length = 0;
+            if (memberIds != null) {
+                for (UUID member : memberIds) {
+                    if (member != null) {
+                        members[length++] = member.getMostSignificantBits();
+                        members[length++] = member.getLeastSignificantBits();
+                    }
+                }
+            }
+            return new ReplicatedTeam(team.getId(), team.getName(), team.getTeamLeadId(),
+                    length == members.length ? members : Arrays.copyOf(members, length),
+                    memberIds != null, hash);
+        }
+
+        private Team toTeam() {
+            List<UUID> memberIds = null;
+            if (hasMembers) {
+                memberIds = new ArrayList<>(members.length / 2);
+                for (int i = 0; i < members.length; i += 2) {
+                    memberIds.add(new UUID(members[i], members[i + 1]));
+                }
+            }
+            return Team.builder()
+                    .id(id)
+                    .name(name)
+                    .teamLeadId(teamLeadId)
+                    .teamMemberIds(memberIds)
+                    .build();
+        }
+    }
+}
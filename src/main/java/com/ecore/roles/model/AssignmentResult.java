@@ -0,0 +1,29 @@
+package com.ecore.roles.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Outcome of assigning a role to one membership of a batch: either the stored membership or the
+ * reason it was rejected.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class AssignmentResult {
+
+    private final Membership membership;
+    private final RuntimeException error;
+
+    public static AssignmentResult assigned(Membership membership) {
+        return new AssignmentResult(membership, null);
+    }
+
+    public static AssignmentResult rejected(RuntimeException error) {
+        return new AssignmentResult(null, error);
+    }
+
+    public boolean isAssigned() {
+        return error == null;
+    }
+}
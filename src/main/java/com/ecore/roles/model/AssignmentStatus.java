@@ -0,0 +1,31 @@
+package com.ecore.roles.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Progress of a role assignment accepted for writing later, looked up by its tracking id: pending
+ * until the writer has stored or rejected it, then the {@link AssignmentResult}.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class AssignmentStatus {
+
+    private final UUID trackingId;
+    private final AssignmentResult result;
+
+    public static AssignmentStatus pending(UUID trackingId) {
+        return new AssignmentStatus(trackingId, null);
+    }
+
+    public static AssignmentStatus completed(UUID trackingId, AssignmentResult result) {
+        return new AssignmentStatus(trackingId, result);
+    }
+
+    public boolean isPending() {
+        return result == null;
+    }
+}
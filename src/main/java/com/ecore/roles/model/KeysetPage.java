@@ -0,0 +1,33 @@
+package com.ecore.roles.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * One page of a listing ordered by id, with the token that continues it after its last item, or
+ * {@code null} when it is the last page.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@Getter
+public class KeysetPage<T> {
+
+    private final List<T> items;
+    private final String nextPageToken;
+
+    /**
+     * Builds a page from a query that fetched up to {@code pageSize + 1} rows, the extra row only
+     * telling whether another page follows.
+     */
+    public static <T> KeysetPage<T> of(List<T> fetched, int pageSize, Function<T, UUID> idOf) {
+        if (fetched.size() <= pageSize) {
+            return new KeysetPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, pageSize);
+        return new KeysetPage<>(items, PageToken.encode(idOf.apply(items.get(pageSize - 1))));
+    }
+}
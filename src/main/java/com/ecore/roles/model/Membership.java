@@ -17,23 +17,35 @@ import java.util.UUID;
 @Setter
 @Builder
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"team_id", "user_id"}))
+@Table(
+        uniqueConstraints = @UniqueConstraint(name = Membership.USER_TEAM_UNIQUE_KEY,
+                columnNames = {"user_id", "team_id"}),
+        indexes = {
+                @Index(name = "idx_membership_role", columnList = "role_id"),
+                @Index(name = "idx_membership_role_id", columnList = "role_id, id"),
+                @Index(name = "idx_membership_team", columnList = "team_id")})
 public class Membership {
 
+    public static final String USER_TEAM_UNIQUE_KEY = "uk_membership_user_team";
+    public static final String ROLE_FOREIGN_KEY = "fk_membership_role";
+
     @Id
     @GeneratedValue(generator = "uuid2")
     @GenericGenerator(name = "uuid2", strategy = "uuid2")
-    @Type(type = "uuid-char")
+    @Type(type = "uuid-binary")
+    @Column(columnDefinition = "binary(16)")
     private UUID id;
 
-    @OneToOne
-    @JoinColumn(name = "role_id", nullable = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "role_id", nullable = false, foreignKey = @ForeignKey(name = ROLE_FOREIGN_KEY))
     private Role role;
 
-    @Column(name = "user_id", nullable = false)
+    @Type(type = "uuid-binary")
+    @Column(name = "user_id", nullable = false, columnDefinition = "binary(16)")
     private UUID userId;
 
-    @Column(name = "team_id", nullable = false)
+    @Type(type = "uuid-binary")
+    @Column(name = "team_id", nullable = false, columnDefinition = "binary(16)")
     private UUID teamId;
 
 }
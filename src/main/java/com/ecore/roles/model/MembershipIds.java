@@ -0,0 +1,28 @@
+package com.ecore.roles.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * The id columns of a membership, what read endpoints return of it. Queries select them straight
+ * into this class, so that no entity is hydrated, registered in the persistence context or
+ * snapshotted for dirty checking, and the role is not joined.
+ */
+@RequiredArgsConstructor
+@Getter
+@EqualsAndHashCode
+public final class MembershipIds {
+
+    private final UUID id;
+    private final UUID roleId;
+    private final UUID userId;
+    private final UUID teamId;
+
+    public static MembershipIds of(Membership membership) {
+        return new MembershipIds(membership.getId(), membership.getRole().getId(), membership.getUserId(),
+                membership.getTeamId());
+    }
+}
@@ -0,0 +1,23 @@
+package com.ecore.roles.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Natural key of a membership: a user has at most one role per team.
+ */
+@RequiredArgsConstructor
+@Getter
+@EqualsAndHashCode
+public final class MembershipKey {
+
+    private final UUID userId;
+    private final UUID teamId;
+
+    public static MembershipKey of(Membership membership) {
+        return new MembershipKey(membership.getUserId(), membership.getTeamId());
+    }
+}
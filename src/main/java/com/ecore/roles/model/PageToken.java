@@ -0,0 +1,51 @@
+package com.ecore.roles.model;
+
+import com.ecore.roles.exception.InvalidArgumentException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token of a {@link KeysetPage}: a format version followed by the id of the
+ * last item returned, URL-safe Base64 encoded.
+ */
+public final class PageToken {
+
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 17;
+
+    private PageToken() {}
+
+    public static String encode(UUID lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .putLong(lastId.getMostSignificantBits())
+                .putLong(lastId.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Returns the id to continue after, or {@code null} for a missing token, i.e. the first page.
+     */
+    public static UUID decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw malformed();
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw malformed();
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static InvalidArgumentException malformed() {
+        return new InvalidArgumentException(PageToken.class, "The page token is malformed.");
+    }
+}
@@ -25,7 +25,8 @@ public class Role {
     @Id
     @GeneratedValue(generator = "uuid2")
     @GenericGenerator(name = "uuid2", strategy = "uuid2")
-    @Type(type = "uuid-char")
+    @Type(type = "uuid-binary")
+    @Column(columnDefinition = "binary(16)")
     private UUID id;
 
     @Column(nullable = false, unique = true)
@@ -1,17 +1,82 @@
 package com.ecore.roles.repository;
 
 import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_FLUSH_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface MembershipRepository extends JpaRepository<Membership, UUID> {
 
+    @EntityGraph(attributePaths = "role")
     Optional<Membership> findByUserIdAndTeamId(UUID userId, UUID teamId);
 
-    List<Membership> findByRoleId(UUID roleId);
+    /**
+     * First page of a role's memberships, read from the id columns straight into {@link MembershipIds}.
+     * Sort the pageable by role id, then id.
+     */
+    @Query("select new com.ecore.roles.model.MembershipIds(m.id, m.role.id, m.userId, m.teamId)"
+            + " from Membership m where m.role.id = :roleId")
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL"))
+    List<MembershipIds> findIdsByRoleId(@Param("roleId") UUID roleId, Pageable pageable);
+
+    /**
+     * Keyset page of a role's memberships like {@link #findIdsByRoleId}: seeks past {@code afterId} on
+     * the (role_id, id) index instead of skipping rows with an offset. Sort the pageable by role id,
+     * then id.
+     */
+    @Query("select new com.ecore.roles.model.MembershipIds(m.id, m.role.id, m.userId, m.teamId)"
+            + " from Membership m where m.role.id = :roleId and m.id > :afterId")
+    @QueryHints(@QueryHint(name = HINT_FLUSH_MODE, value = "MANUAL"))
+    List<MembershipIds> findIdsByRoleIdAndIdGreaterThan(
+            @Param("roleId") UUID roleId,
+            @Param("afterId") UUID afterId,
+            Pageable pageable);
+
+    /**
+     * Streams the memberships of a role and/or team, or all of them when both are {@code null}, from a
+     * database cursor. Must be consumed inside a transaction; the caller detaches the rows it is done
+     * with so the persistence context does not grow with the result.
+     */
+    @Query("select m from Membership m join fetch m.role r"
+            + " where (:roleId is null or r.id = :roleId) and (:teamId is null or m.teamId = :teamId)")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")})
+    Stream<Membership> streamByRoleIdAndTeamId(@Param("roleId") UUID roleId, @Param("teamId") UUID teamId);
+
+    /**
+     * Streams the id columns of every membership from a database cursor, without loading entities into
+     * the persistence context. Must be consumed inside a transaction.
+     */
+    @Query("select new com.ecore.roles.model.MembershipIds(m.id, m.role.id, m.userId, m.teamId) from Membership m")
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")})
+    Stream<MembershipIds> streamAllIds();
+
+    /**
+     * Returns every membership whose user and team are among the given ones, a superset of the exact
+     * (user, team) pairs the caller is interested in.
+     */
+    List<Membership> findByUserIdInAndTeamIdIn(Collection<UUID> userIds, Collection<UUID> teamIds);
 }
@@ -1,14 +1,39 @@
 package com.ecore.roles.service;
 
 import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.model.AssignmentResult;
+import com.ecore.roles.model.AssignmentStatus;
+import com.ecore.roles.model.KeysetPage;
 import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface MembershipsService {
 
     Membership assignRoleToMembership(Membership membership) throws ResourceNotFoundException;
 
-    List<Membership> getMemberships(UUID roleId);
+    /**
+     * Validates the membership like {@link #assignRoleToMembership} and, when write-behind is enabled,
+     * queues it to be stored later and returns its pending status and tracking id. Otherwise, or while
+     * the queue is stopping, stores it right away.
+     */
+    AssignmentStatus queueRoleAssignment(Membership membership);
+
+    AssignmentStatus getAssignmentStatus(UUID trackingId) throws ResourceNotFoundException;
+
+    List<AssignmentResult> assignRolesToMemberships(List<Membership> memberships);
+
+    /**
+     * Returns a page of the role's memberships, read without loading the entities.
+     */
+    KeysetPage<MembershipIds> getMemberships(UUID roleId, String pageToken, Integer pageSize);
+
+    /**
+     * Hands every membership of the given role and/or team, or every membership when both are
+     * {@code null}, to {@code consumer} one at a time without holding them all in memory.
+     */
+    void exportMemberships(UUID roleId, UUID teamId, Consumer<Membership> consumer);
 }
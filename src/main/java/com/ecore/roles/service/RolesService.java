@@ -1,8 +1,8 @@
 package com.ecore.roles.service;
 
+import com.ecore.roles.model.KeysetPage;
 import com.ecore.roles.model.Role;
 
-import java.util.List;
 import java.util.UUID;
 
 public interface RolesService {
@@ -11,6 +11,8 @@ public interface RolesService {
 
     Role GetRole(UUID id);
 
-    List<Role> GetRoles();
+    Role GetRole(UUID userId, UUID teamId);
+
+    KeysetPage<Role> GetRoles(String pageToken, Integer pageSize);
 
 }
@@ -2,12 +2,20 @@ package com.ecore.roles.service;
 
 import com.ecore.roles.client.model.Team;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface TeamsService {
 
     Team getTeam(UUID id);
 
     List<Team> getTeams();
+
+    List<Team> getTeams(Collection<UUID> ids);
+
+    CompletableFuture<Team> getTeamAsync(UUID id);
+
+    CompletableFuture<List<Team>> getTeamsAsync();
 }
@@ -2,12 +2,20 @@ package com.ecore.roles.service;
 
 import com.ecore.roles.client.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface UsersService {
 
     User getUser(UUID id);
 
     List<User> getUsers();
+
+    List<User> getUsers(Collection<UUID> ids);
+
+    CompletableFuture<User> getUserAsync(UUID id);
+
+    CompletableFuture<List<User>> getUsersAsync();
 }
@@ -0,0 +1,266 @@
+package com.ecore.roles.service.impl;
+
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.exception.ResourceExistsException;
+import com.ecore.roles.exception.WriteQueueFullException;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.MembershipsAssignedEvent;
+import com.ecore.roles.model.AssignmentResult;
+import com.ecore.roles.model.AssignmentStatus;
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipKey;
+import com.ecore.roles.repository.MembershipRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of validated role assignments and the single thread writing them, for the
+ * write-behind mode of {@code memberships.write-behind}. The writer takes whatever is queued, up to
+ * {@code batch-size} assignments, and stores it with one JDBC-batched transaction, so a burst costs
+ * one transaction per batch rather than one per request. When a batch violates a constraint its
+ * assignments are retried one at a time, so each one gets its own outcome.
+ * <p>
+ * A queued (user, team) pair stays reserved until it is written, so assigning it again is refused
+ * when it is submitted instead of failing in the writer. Outcomes can be looked up by tracking id
+ * for {@code status-ttl} after they are written.
+ */
+@Log4j2
+@Component
+public class MembershipWriteQueue {
+
+    public static final String QUEUE_SIZE_GAUGE = "memberships.write_queue.size";
+    public static final String BATCH_SIZE_SUMMARY = "memberships.write_queue.batch_size";
+
+    private static final long POLL_MILLIS = 100;
+    private static final long SHUTDOWN_MILLIS = 30_000;
+
+    private final MembershipRepository membershipRepository;
+    private final MembershipIndex membershipIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MembershipsConfigurationProperties.WriteBehind writeBehind;
+    private final BlockingQueue<Queued> queue;
+    private final Map<MembershipKey, UUID> reserved = new ConcurrentHashMap<>();
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+    private final Cache<UUID, AssignmentStatus> completed;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    @Autowired
+    public MembershipWriteQueue(
+            MembershipRepository membershipRepository,
+            MembershipIndex membershipIndex,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher,
+            MembershipsConfigurationProperties membershipsConfigurationProperties,
+            MeterRegistry meterRegistry) {
+        this.membershipRepository = membershipRepository;
+        this.membershipIndex = membershipIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.writeBehind = membershipsConfigurationProperties.getWriteBehind();
+        this.queue = new ArrayBlockingQueue<>(writeBehind.getQueueCapacity());
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(writeBehind.getMaximumStatuses())
+                .expireAfterWrite(writeBehind.getStatusTtl())
+                .build();
+        this.batchSizes = DistributionSummary.builder(BATCH_SIZE_SUMMARY)
+                .description("Number of queued memberships written per transaction")
+                .register(meterRegistry);
+        Gauge.builder(QUEUE_SIZE_GAUGE, queue, BlockingQueue::size)
+                .description("Number of accepted memberships waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public synchronized void start() {
+        if (!writeBehind.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::drain, "memberships-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting assignments and waits for the writer to store the ones already queued.
+     */
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        writer.join(SHUTDOWN_MILLIS);
+        if (!queue.isEmpty()) {
+            log.warn("Stopped with {} queued memberships not written", queue.size());
+        }
+    }
+
+    /**
+     * Queues a validated membership, whose role is already resolved, and returns its pending status.
+     * Returns empty when write-behind is disabled or has stopped accepting assignments for shutdown,
+     * for the caller to store the membership itself.
+     *
+     * @throws ResourceExistsException when the same user and team are already queued
+     * @throws WriteQueueFullException when {@code queue-capacity} assignments are already waiting
+     */
+    public Optional<AssignmentStatus> submit(Membership membership) {
+        if (!running) {
+            return Optional.empty();
+        }
+        UUID trackingId = UUID.randomUUID();
+        MembershipKey key = MembershipKey.of(membership);
+        if (reserved.putIfAbsent(key, trackingId) != null) {
+            throw new ResourceExistsException(Membership.class);
+        }
+        pending.add(trackingId);
+        if (!queue.offer(new Queued(trackingId, key, membership))) {
+            pending.remove(trackingId);
+            reserved.remove(key, trackingId);
+            throw new WriteQueueFullException(Membership.class, writeBehind.getQueueCapacity());
+        }
+        return Optional.of(AssignmentStatus.pending(trackingId));
+    }
+
+    /**
+     * Returns the status of a submitted assignment, or empty when the tracking id is unknown or its
+     * outcome has expired.
+     */
+    public Optional<AssignmentStatus> status(UUID trackingId) {
+        AssignmentStatus status = completed.getIfPresent(trackingId);
+        if (status != null) {
+            return Optional.of(status);
+        }
+        if (pending.contains(trackingId)) {
+            return Optional.of(AssignmentStatus.pending(trackingId));
+        }
+        // written between the two lookups
+        return Optional.ofNullable(completed.getIfPresent(trackingId));
+    }
+
+    public int size() {
+        return queue.size();
+    }
+
+    private void drain() {
+        List<Queued> batch = new ArrayList<>(writeBehind.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                Queued first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, writeBehind.getBatchSize() - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Could not write {} queued memberships", batch.size(), e);
+                for (Queued queued : batch) {
+                    if (pending.contains(queued.trackingId)) {
+                        complete(queued, AssignmentResult.rejected(
+                                new IllegalStateException("Membership was not stored: " + e.getMessage())));
+                    }
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Queued> batch) {
+        batchSizes.record(batch.size());
+        List<Membership> memberships = new ArrayList<>(batch.size());
+        for (Queued queued : batch) {
+            memberships.add(queued.membership);
+        }
+        List<Membership> stored;
+        try {
+            stored = transactionTemplate.execute(status -> {
+                List<Membership> saved = membershipRepository.saveAll(memberships);
+                membershipRepository.flush();
+                eventPublisher.publishEvent(new MembershipsAssignedEvent(saved));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Rolled back a batch of {} queued memberships, writing them one at a time: {}",
+                    batch.size(), e.getMostSpecificCause().getMessage());
+            batch.forEach(this::writeOne);
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i), AssignmentResult.assigned(stored.get(i)));
+        }
+    }
+
+    private void writeOne(Queued queued) {
+        Membership membership = queued.membership;
+        membership.setId(null);
+        try {
+            complete(queued, AssignmentResult.assigned(
+                    transactionTemplate.execute(status -> {
+                        Membership saved = membershipRepository.saveAndFlush(membership);
+                        eventPublisher.publishEvent(new MembershipsAssignedEvent(List.of(saved)));
+                        return saved;
+                    })));
+        } catch (DataIntegrityViolationException e) {
+            complete(queued, AssignmentResult.rejected(
+                    MembershipsServiceImpl.translate(e, membership.getRole().getId())));
+        }
+    }
+
+    /**
+     * Publishes the outcome before releasing the pair and the tracking id, so neither the duplicate
+     * check nor a status lookup can miss the assignment in between.
+     */
+    private void complete(Queued queued, AssignmentResult result) {
+        if (result.isAssigned()) {
+            Membership membership = result.getMembership();
+            membershipIndex.put(membership.getUserId(), membership.getTeamId(), membership.getRole());
+        }
+        completed.put(queued.trackingId, AssignmentStatus.completed(queued.trackingId, result));
+        pending.remove(queued.trackingId);
+        reserved.remove(queued.key, queued.trackingId);
+    }
+
+    private static final class Queued {
+
+        private final UUID trackingId;
+        private final MembershipKey key;
+        private final Membership membership;
+
+        private Queued(UUID trackingId, MembershipKey key, Membership membership) {
+            this.trackingId = trackingId;
+            this.key = key;
+            this.membership = membership;
+        }
+    }
+}
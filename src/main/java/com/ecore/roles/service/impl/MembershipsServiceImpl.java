@@ -1,55 +1,382 @@
 package com.ecore.roles.service.impl;
 
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.configuration.PaginationConfigurationProperties;
 import com.ecore.roles.exception.InvalidArgumentException;
 import com.ecore.roles.exception.ResourceExistsException;
 import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.MembershipViews;
+import com.ecore.roles.index.MembershipsAssignedEvent;
+import com.ecore.roles.index.RoleCatalog;
+import com.ecore.roles.index.TeamRosterIndex;
+import com.ecore.roles.model.AssignmentResult;
+import com.ecore.roles.model.AssignmentStatus;
+import com.ecore.roles.model.KeysetPage;
 import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
+import com.ecore.roles.model.MembershipKey;
+import com.ecore.roles.model.PageToken;
 import com.ecore.roles.model.Role;
 import com.ecore.roles.repository.MembershipRepository;
-import com.ecore.roles.repository.RoleRepository;
 import com.ecore.roles.service.MembershipsService;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static java.lang.String.format;
 import static java.util.Optional.ofNullable;
 
 @Log4j2
 @Service
 public class MembershipsServiceImpl implements MembershipsService {
 
+    private static final String NOT_ON_ROSTER = "The provided user doesn't belong to the provided team.";
+
     private final MembershipRepository membershipRepository;
-    private final RoleRepository roleRepository;
+    private final RoleCatalog roleCatalog;
+    private final MembershipIndex membershipIndex;
+    private final TeamRosterIndex teamRosterIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final MembershipsConfigurationProperties membershipsConfigurationProperties;
+    private final PaginationConfigurationProperties paginationConfigurationProperties;
+    private final EntityManager entityManager;
+    private final MembershipWriteQueue membershipWriteQueue;
+    private final MembershipViews membershipViews;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
     public MembershipsServiceImpl(
             MembershipRepository membershipRepository,
-            RoleRepository roleRepository) {
+            RoleCatalog roleCatalog,
+            MembershipIndex membershipIndex,
+            TeamRosterIndex teamRosterIndex,
+            PlatformTransactionManager transactionManager,
+            MembershipsConfigurationProperties membershipsConfigurationProperties,
+            PaginationConfigurationProperties paginationConfigurationProperties,
+            EntityManager entityManager,
+            MembershipWriteQueue membershipWriteQueue,
+            MembershipViews membershipViews,
+            ApplicationEventPublisher eventPublisher) {
         this.membershipRepository = membershipRepository;
-        this.roleRepository = roleRepository;
+        this.roleCatalog = roleCatalog;
+        this.membershipIndex = membershipIndex;
+        this.teamRosterIndex = teamRosterIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.membershipsConfigurationProperties = membershipsConfigurationProperties;
+        this.paginationConfigurationProperties = paginationConfigurationProperties;
+        this.entityManager = entityManager;
+        this.membershipWriteQueue = membershipWriteQueue;
+        this.membershipViews = membershipViews;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * Stores the membership with a single INSERT. The role, duplicate and team roster checks are
+     * answered from memory, and the database constraints settle races between concurrent writers. The
+     * change event is published inside the transaction, so the views only apply it once it commits.
+     */
     @Override
     public Membership assignRoleToMembership(@NonNull Membership m) {
+        Role role = validateAssignment(m);
+        m.setId(null);
+        m.setRole(role);
+        return store(m, role);
+    }
+
+    /**
+     * Runs the checks of {@link #assignRoleToMembership} and hands the membership to the write queue.
+     * When write-behind is disabled, or the queue is stopping, stores it right away and returns its
+     * completed status.
+     */
+    @Override
+    public AssignmentStatus queueRoleAssignment(@NonNull Membership m) {
+        Role role = validateAssignment(m);
+        m.setId(null);
+        m.setRole(role);
+        return membershipWriteQueue.submit(m)
+                .orElseGet(() -> AssignmentStatus.completed(null, AssignmentResult.assigned(store(m, role))));
+    }
 
+    private Membership store(Membership m, Role role) {
+        Membership membership;
+        try {
+            membership = transactionTemplate.execute(status -> {
+                Membership saved = membershipRepository.saveAndFlush(m);
+                eventPublisher.publishEvent(new MembershipsAssignedEvent(List.of(saved)));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            throw translate(e, role.getId());
+        }
+        membershipIndex.put(membership.getUserId(), membership.getTeamId(), role);
+        return membership;
+    }
+
+    @Override
+    public AssignmentStatus getAssignmentStatus(@NonNull UUID trackingId) {
+        return membershipWriteQueue.status(trackingId)
+                .orElseThrow(() -> new ResourceNotFoundException(AssignmentStatus.class, trackingId));
+    }
+
+    /**
+     * Returns the role to assign, checking from memory that it exists, that the user has no role in the
+     * team yet and that the user is on the team roster.
+     */
+    private Role validateAssignment(Membership m) {
         UUID roleId = ofNullable(m.getRole()).map(Role::getId)
                 .orElseThrow(() -> new InvalidArgumentException(Role.class));
 
-        if (membershipRepository.findByUserIdAndTeamId(m.getUserId(), m.getTeamId())
-                .isPresent()) {
+        if (membershipIndex.findRole(m.getUserId(), m.getTeamId()).isPresent()) {
             throw new ResourceExistsException(Membership.class);
         }
 
-        roleRepository.findById(roleId).orElseThrow(() -> new ResourceNotFoundException(Role.class, roleId));
-        return membershipRepository.save(m);
+        Role role = roleCatalog.findById(roleId)
+                .orElseThrow(() -> new ResourceNotFoundException(Role.class, roleId));
+        checkRoster(m);
+        return role;
+    }
+
+    /**
+     * Validates the whole batch against the role catalog, the team rosters and with one duplicate
+     * query, then inserts the accepted memberships in JDBC-batched chunks, one transaction per chunk.
+     */
+    @Override
+    public List<AssignmentResult> assignRolesToMemberships(@NonNull List<Membership> memberships) {
+        int maxSize = membershipsConfigurationProperties.getBatch().getMaxSize();
+        if (memberships.size() > maxSize) {
+            throw new InvalidArgumentException(Membership.class,
+                    format("At most %d memberships can be assigned at once.", maxSize));
+        }
+
+        Map<UUID, Role> roles = roleCatalog.findAllById(roleIdsOf(memberships));
+        Set<MembershipKey> taken = existingKeysOf(memberships);
+        if (membershipsConfigurationProperties.getValidation().isEnabled()) {
+            teamRosterIndex.preload(teamIdsOf(memberships, roles));
+        }
+
+        AssignmentResult[] results = new AssignmentResult[memberships.size()];
+        List<Integer> accepted = new ArrayList<>();
+        for (int i = 0; i < memberships.size(); i++) {
+            Membership m = memberships.get(i);
+            RuntimeException error = validate(m, roles, taken);
+            if (error != null) {
+                results[i] = AssignmentResult.rejected(error);
+                continue;
+            }
+            taken.add(MembershipKey.of(m));
+            m.setId(null);
+            m.setRole(roles.get(m.getRole().getId()));
+            accepted.add(i);
+        }
+
+        int chunkSize = membershipsConfigurationProperties.getBatch().getChunkSize();
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            insertChunk(memberships, chunk, results);
+        }
+        return List.of(results);
+    }
+
+    private void insertChunk(List<Membership> memberships, List<Integer> chunk, AssignmentResult[] results) {
+        List<Membership> toInsert = chunk.stream().map(memberships::get).collect(Collectors.toList());
+        List<Membership> inserted;
+        try {
+            inserted = transactionTemplate.execute(status -> {
+                List<Membership> saved = membershipRepository.saveAll(toInsert);
+                membershipRepository.flush();
+                eventPublisher.publishEvent(new MembershipsAssignedEvent(saved));
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Rolled back a chunk of {} memberships, inserting them one at a time: {}", chunk.size(),
+                    e.getMostSpecificCause().getMessage());
+            for (Integer index : chunk) {
+                results[index] = insertOne(memberships.get(index));
+            }
+            return;
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            Membership membership = inserted.get(i);
+            membershipIndex.put(membership.getUserId(), membership.getTeamId(), membership.getRole());
+            results[chunk.get(i)] = AssignmentResult.assigned(membership);
+        }
+    }
+
+    private AssignmentResult insertOne(Membership membership) {
+        membership.setId(null);
+        Membership saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Membership stored = membershipRepository.saveAndFlush(membership);
+                eventPublisher.publishEvent(new MembershipsAssignedEvent(List.of(stored)));
+                return stored;
+            });
+        } catch (DataIntegrityViolationException e) {
+            return AssignmentResult.rejected(translate(e, membership.getRole().getId()));
+        }
+        membershipIndex.put(saved.getUserId(), saved.getTeamId(), saved.getRole());
+        return AssignmentResult.assigned(saved);
+    }
+
+    static RuntimeException translate(DataIntegrityViolationException e, UUID roleId) {
+        String constraint = constraintName(e);
+        if (constraint.contains(Membership.USER_TEAM_UNIQUE_KEY)) {
+            return new ResourceExistsException(Membership.class);
+        }
+        if (constraint.contains(Membership.ROLE_FOREIGN_KEY)) {
+            return new ResourceNotFoundException(Role.class, roleId);
+        }
+        return e;
+    }
+
+    /**
+     * Returns the lower-cased name of the violated constraint, falling back to the driver message when
+     * the dialect could not extract it.
+     */
+    private static String constraintName(DataIntegrityViolationException e) {
+        String name = e.getCause() instanceof ConstraintViolationException
+                ? ((ConstraintViolationException) e.getCause()).getConstraintName()
+                : null;
+        return String.valueOf(name != null ? name : e.getMostSpecificCause().getMessage())
+                .toLowerCase(Locale.ROOT);
     }
 
+    private void checkRoster(Membership m) {
+        if (membershipsConfigurationProperties.getValidation().isEnabled()
+                && !teamRosterIndex.isMember(m.getTeamId(), m.getUserId())) {
+            throw new InvalidArgumentException(Membership.class, NOT_ON_ROSTER);
+        }
+    }
+
+    private RuntimeException validate(Membership m, Map<UUID, Role> roles, Set<MembershipKey> taken) {
+        if (m == null || m.getUserId() == null || m.getTeamId() == null) {
+            return new InvalidArgumentException(Membership.class);
+        }
+        UUID roleId = ofNullable(m.getRole()).map(Role::getId).orElse(null);
+        if (roleId == null) {
+            return new InvalidArgumentException(Role.class);
+        }
+        if (!roles.containsKey(roleId)) {
+            return new ResourceNotFoundException(Role.class, roleId);
+        }
+        if (taken.contains(MembershipKey.of(m))) {
+            return new ResourceExistsException(Membership.class);
+        }
+        try {
+            checkRoster(m);
+        } catch (InvalidArgumentException | ResourceNotFoundException e) {
+            return e;
+        }
+        return null;
+    }
+
+    private static Set<UUID> roleIdsOf(List<Membership> memberships) {
+        return memberships.stream()
+                .filter(Objects::nonNull)
+                .map(Membership::getRole)
+                .filter(Objects::nonNull)
+                .map(Role::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Returns the teams of the memberships that have a known role, the only ones whose roster gets
+     * checked.
+     */
+    private static Set<UUID> teamIdsOf(List<Membership> memberships, Map<UUID, Role> roles) {
+        return memberships.stream()
+                .filter(m -> m != null && m.getRole() != null && roles.containsKey(m.getRole().getId()))
+                .map(Membership::getTeamId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private Set<MembershipKey> existingKeysOf(List<Membership> memberships) {
+        Set<UUID> userIds = new HashSet<>();
+        Set<UUID> teamIds = new HashSet<>();
+        for (Membership m : memberships) {
+            if (m != null && m.getUserId() != null && m.getTeamId() != null) {
+                userIds.add(m.getUserId());
+                teamIds.add(m.getTeamId());
+            }
+        }
+        if (userIds.isEmpty()) {
+            return new HashSet<>();
+        }
+        return membershipRepository.findByUserIdInAndTeamIdIn(userIds, teamIds).stream()
+                .map(MembershipKey::of)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    /**
+     * Serves the page from the membership views once they are loaded. Otherwise reads only the id
+     * columns from the database, in a read-only transaction, which Hibernate runs with flush mode
+     * MANUAL.
+     */
     @Override
-    public List<Membership> getMemberships(@NonNull UUID rid) {
-        return membershipRepository.findByRoleId(rid);
+    public KeysetPage<MembershipIds> getMemberships(@NonNull UUID rid, String pageToken, Integer pageSize) {
+        int size = paginationConfigurationProperties.resolvePageSize(pageSize);
+        UUID afterId = PageToken.decode(pageToken);
+        if (membershipViews.isReady()) {
+            List<MembershipIds> memberships = membershipViews.findByRoleId(rid, afterId, size + 1).stream()
+                    .map(MembershipIds::of)
+                    .collect(Collectors.toList());
+            return KeysetPage.of(memberships, size, MembershipIds::getId);
+        }
+        Pageable pageable = PageRequest.of(0, size + 1, Sort.by("role.id", "id"));
+        List<MembershipIds> memberships = readOnlyTransaction.execute(status -> afterId == null
+                ? membershipRepository.findIdsByRoleId(rid, pageable)
+                : membershipRepository.findIdsByRoleIdAndIdGreaterThan(rid, afterId, pageable));
+        return KeysetPage.of(memberships, size, MembershipIds::getId);
+    }
+
+    /**
+     * Serves the export from the membership views once they are loaded. Otherwise streams it from a
+     * database cursor in a read-only transaction, which only then holds a connection for as long as the
+     * client takes to read the response.
+     */
+    @Override
+    public void exportMemberships(UUID roleId, UUID teamId, @NonNull Consumer<Membership> consumer) {
+        if (membershipViews.isReady()) {
+            membershipViews.forEach(roleId, teamId, consumer);
+            return;
+        }
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try (Stream<Membership> memberships =
+                    membershipRepository.streamByRoleIdAndTeamId(roleId, teamId)) {
+                memberships.forEach(membership -> {
+                    consumer.accept(membership);
+                    entityManager.detach(membership);
+                });
+            }
+        });
     }
 }
@@ -1,18 +1,24 @@
 package com.ecore.roles.service.impl;
 
+import com.ecore.roles.configuration.PaginationConfigurationProperties;
 import com.ecore.roles.exception.ResourceExistsException;
 import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.RoleCatalog;
+import com.ecore.roles.model.KeysetPage;
+import com.ecore.roles.model.PageToken;
 import com.ecore.roles.model.Role;
 import com.ecore.roles.repository.MembershipRepository;
 import com.ecore.roles.repository.RoleRepository;
 import com.ecore.roles.service.MembershipsService;
 import com.ecore.roles.service.RolesService;
+import com.ecore.roles.service.TeamsService;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.UUID;
 
 @Log4j2
@@ -24,38 +30,71 @@ public class RolesServiceImpl implements RolesService {
     private final RoleRepository roleRepository;
     private final MembershipRepository membershipRepository;
     private final MembershipsService membershipsService;
+    private final MembershipIndex membershipIndex;
+    private final RoleCatalog roleCatalog;
+    private final TeamsService teamsService;
+    private final PaginationConfigurationProperties paginationConfigurationProperties;
 
     @Autowired
     public RolesServiceImpl(
             RoleRepository roleRepository,
             MembershipRepository membershipRepository,
-            MembershipsService membershipsService) {
+            MembershipsService membershipsService,
+            MembershipIndex membershipIndex,
+            RoleCatalog roleCatalog,
+            TeamsService teamsService,
+            PaginationConfigurationProperties paginationConfigurationProperties) {
         this.roleRepository = roleRepository;
         this.membershipRepository = membershipRepository;
         this.membershipsService = membershipsService;
+        this.membershipIndex = membershipIndex;
+        this.roleCatalog = roleCatalog;
+        this.teamsService = teamsService;
+        this.paginationConfigurationProperties = paginationConfigurationProperties;
     }
 
     @Override
     public Role CreateRole(@NonNull Role r) {
-        if (roleRepository.findByName(r.getName()).isPresent()) {
+        if (roleCatalog.findByName(r.getName()).isPresent()) {
             throw new ResourceExistsException(Role.class);
         }
-        return roleRepository.save(r);
+        Role role;
+        try {
+            role = roleRepository.save(r);
+        } catch (DataIntegrityViolationException e) {
+            throw new ResourceExistsException(Role.class);
+        }
+        roleCatalog.put(role);
+        return role;
     }
 
     @Override
     public Role GetRole(@NonNull UUID rid) {
-        return roleRepository.findById(rid)
+        return roleCatalog.findById(rid)
                 .orElseThrow(() -> new ResourceNotFoundException(Role.class, rid));
     }
 
+    /**
+     * Answers from the membership index; only when the user has no role in the team is the team looked
+     * up, so that an unknown team is reported as such.
+     */
+    @Override
+    public Role GetRole(@NonNull UUID userId, @NonNull UUID teamId) {
+        return membershipIndex.findRole(userId, teamId)
+                .orElseGet(() -> {
+                    teamsService.getTeam(teamId);
+                    throw new ResourceNotFoundException(Role.class, userId, teamId);
+                });
+    }
+
     @Override
-    public List<Role> GetRoles() {
-        return roleRepository.findAll();
+    public KeysetPage<Role> GetRoles(String pageToken, Integer pageSize) {
+        int size = paginationConfigurationProperties.resolvePageSize(pageSize);
+        return roleCatalog.page(PageToken.decode(pageToken), size);
     }
 
     private Role getDefaultRole() {
-        return roleRepository.findByName(DEFAULT_ROLE)
+        return roleCatalog.findByName(DEFAULT_ROLE)
                 .orElseThrow(() -> new IllegalStateException("Default role is not configured"));
     }
 }
@@ -1,29 +1,91 @@
 package com.ecore.roles.service.impl;
 
+import com.ecore.roles.client.CachedFetcher;
 import com.ecore.roles.client.TeamsClient;
 import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import com.ecore.roles.exception.InvalidArgumentException;
+import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.index.TeamsReplica;
 import com.ecore.roles.service.TeamsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.ecore.roles.configuration.CacheConfiguration.TEAMS_CACHE;
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
 
 @Service
 public class TeamsServiceImpl implements TeamsService {
 
     private final TeamsClient teamsClient;
+    private final CachedFetcher cachedFetcher;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final TeamsReplica teamsReplica;
 
     @Autowired
-    public TeamsServiceImpl(TeamsClient teamsClient) {
+    public TeamsServiceImpl(
+            TeamsClient teamsClient,
+            CachedFetcher cachedFetcher,
+            ClientsConfigurationProperties clientsConfigurationProperties,
+            TeamsReplica teamsReplica) {
         this.teamsClient = teamsClient;
+        this.cachedFetcher = cachedFetcher;
+        this.clientsConfigurationProperties = clientsConfigurationProperties;
+        this.teamsReplica = teamsReplica;
     }
 
     public Team getTeam(UUID id) {
-        return teamsClient.getTeam(id).getBody();
+        if (teamsReplica.isServing()) {
+            return teamsReplica.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException(Team.class, id));
+        }
+        return ofNullable(teamsClient.getTeam(id).getBody())
+                .orElseThrow(() -> new ResourceNotFoundException(Team.class, id));
     }
 
     public List<Team> getTeams() {
+        if (teamsReplica.isServing()) {
+            return teamsReplica.findAll();
+        }
         return teamsClient.getTeams().getBody();
     }
+
+    public List<Team> getTeams(Collection<UUID> ids) {
+        int maxBatchSize = clientsConfigurationProperties.getFanOut().getMaxBatchSize();
+        if (ids.size() > maxBatchSize) {
+            throw new InvalidArgumentException(Team.class,
+                    format("At most %d teams can be fetched at once.", maxBatchSize));
+        }
+        if (teamsReplica.isServing()) {
+            return teamsReplica.findAllById(new LinkedHashSet<>(ids));
+        }
+        return cachedFetcher.fetchAll(TEAMS_CACHE, ids, teamsClient::getTeam);
+    }
+
+    public CompletableFuture<Team> getTeamAsync(UUID id) {
+        if (teamsReplica.isServing()) {
+            return CompletableFuture.supplyAsync(() -> getTeam(id), Runnable::run);
+        }
+        return cachedFetcher.fetchAsync(TEAMS_CACHE, id, teamsClient::getTeamAsync)
+                .map(response -> ofNullable(response.getBody())
+                        .orElseThrow(() -> new ResourceNotFoundException(Team.class, id)))
+                .toFuture();
+    }
+
+    public CompletableFuture<List<Team>> getTeamsAsync() {
+        if (teamsReplica.isServing()) {
+            return CompletableFuture.completedFuture(teamsReplica.findAll());
+        }
+        return teamsClient.getTeamsAsync()
+                .map(ResponseEntity::getBody)
+                .toFuture();
+    }
 }
@@ -1,29 +1,70 @@
 package com.ecore.roles.service.impl;
 
+import com.ecore.roles.client.CachedFetcher;
 import com.ecore.roles.client.UsersClient;
 import com.ecore.roles.client.model.User;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import com.ecore.roles.exception.InvalidArgumentException;
+import com.ecore.roles.exception.ResourceNotFoundException;
 import com.ecore.roles.service.UsersService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static com.ecore.roles.configuration.CacheConfiguration.USERS_CACHE;
+import static java.lang.String.format;
+import static java.util.Optional.ofNullable;
 
 @Service
 public class UsersServiceImpl implements UsersService {
 
     private final UsersClient usersClient;
+    private final CachedFetcher cachedFetcher;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
 
     @Autowired
-    public UsersServiceImpl(UsersClient usersClient) {
+    public UsersServiceImpl(
+            UsersClient usersClient,
+            CachedFetcher cachedFetcher,
+            ClientsConfigurationProperties clientsConfigurationProperties) {
         this.usersClient = usersClient;
+        this.cachedFetcher = cachedFetcher;
+        this.clientsConfigurationProperties = clientsConfigurationProperties;
     }
 
     public User getUser(UUID id) {
-        return usersClient.getUser(id).getBody();
+        return ofNullable(usersClient.getUser(id).getBody())
+                .orElseThrow(() -> new ResourceNotFoundException(User.class, id));
     }
 
     public List<User> getUsers() {
         return usersClient.getUsers().getBody();
     }
+
+    public List<User> getUsers(Collection<UUID> ids) {
+        int maxBatchSize = clientsConfigurationProperties.getFanOut().getMaxBatchSize();
+        if (ids.size() > maxBatchSize) {
+            throw new InvalidArgumentException(User.class,
+                    format("At most %d users can be fetched at once.", maxBatchSize));
+        }
+        return cachedFetcher.fetchAll(USERS_CACHE, ids, usersClient::getUser);
+    }
+
+    public CompletableFuture<User> getUserAsync(UUID id) {
+        return cachedFetcher.fetchAsync(USERS_CACHE, id, usersClient::getUserAsync)
+                .map(response -> ofNullable(response.getBody())
+                        .orElseThrow(() -> new ResourceNotFoundException(User.class, id)))
+                .toFuture();
+    }
+
+    public CompletableFuture<List<User>> getUsersAsync() {
+        return usersClient.getUsersAsync()
+                .map(ResponseEntity::getBody)
+                .toFuture();
+    }
 }
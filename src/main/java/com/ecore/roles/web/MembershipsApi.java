@@ -1,17 +1,35 @@
 package com.ecore.roles.web;
 
+import com.ecore.roles.web.dto.AssignmentResultDto;
+import com.ecore.roles.web.dto.AssignmentStatusDto;
 import com.ecore.roles.web.dto.MembershipDto;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 public interface MembershipsApi {
 
-    ResponseEntity<MembershipDto> assignRoleToMembership(
-            MembershipDto membership);
+    ResponseEntity<?> assignRoleToMembership(
+            MembershipDto membership,
+            List<String> preferences);
+
+    ResponseEntity<AssignmentStatusDto> getAssignmentStatus(
+            UUID trackingId);
+
+    ResponseEntity<List<AssignmentResultDto>> assignRolesToMemberships(
+            List<MembershipDto> memberships);
 
     ResponseEntity<List<MembershipDto>> getMemberships(
-            UUID roleId);
+            UUID roleId,
+            String pageToken,
+            Integer pageSize,
+            Set<String> expand);
+
+    ResponseEntity<StreamingResponseBody> exportMemberships(
+            UUID roleId,
+            UUID teamId);
 
 }
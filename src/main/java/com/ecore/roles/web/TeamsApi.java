@@ -5,11 +5,18 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface TeamsApi {
 
     ResponseEntity<List<TeamDto>> getTeams();
 
+    ResponseEntity<List<TeamDto>> getTeams(List<UUID> teamIds);
+
     ResponseEntity<TeamDto> getTeam(UUID teamId);
 
+    CompletableFuture<ResponseEntity<List<TeamDto>>> getTeamsAsync();
+
+    CompletableFuture<ResponseEntity<TeamDto>> getTeamAsync(UUID teamId);
+
 }
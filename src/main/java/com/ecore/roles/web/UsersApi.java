@@ -5,10 +5,18 @@ import org.springframework.http.ResponseEntity;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public interface UsersApi {
 
     ResponseEntity<List<UserDto>> getUsers();
 
+    ResponseEntity<List<UserDto>> getUsers(List<UUID> userIds);
+
     ResponseEntity<UserDto> getUser(UUID userId);
+
+    CompletableFuture<ResponseEntity<List<UserDto>>> getUsersAsync();
+
+    CompletableFuture<ResponseEntity<UserDto>> getUserAsync(UUID userId);
+
 }
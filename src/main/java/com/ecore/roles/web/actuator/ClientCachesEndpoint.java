@@ -0,0 +1,148 @@
+package com.ecore.roles.web.actuator;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Exposes the upstream client caches under {@code /actuator/clientcaches}, so single entries can be
+ * inspected and evicted without flushing a whole cache.
+ */
+@RequiredArgsConstructor
+@Component
+@Endpoint(id = "clientcaches")
+public class ClientCachesEndpoint {
+
+    private final CacheManager cacheManager;
+
+    @ReadOperation
+    public Map<String, CacheDescriptor> caches() {
+        Map<String, CacheDescriptor> caches = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            caches.put(name, describe(nativeCache(name)));
+        }
+        return caches;
+    }
+
+    @ReadOperation
+    public CacheEntriesDescriptor entries(@Selector String cache) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = nativeCache(cache);
+        if (nativeCache == null) {
+            return null;
+        }
+        return CacheEntriesDescriptor.builder()
+                .stats(describe(nativeCache))
+                .keys(nativeCache.asMap().keySet().stream()
+                        .map(String::valueOf)
+                        .sorted()
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    @ReadOperation
+    public CacheEntryDescriptor entry(@Selector String cache, @Selector String key) {
+        Cache clientCache = cacheManager.getCache(cache);
+        if (clientCache == null) {
+            return null;
+        }
+        Cache.ValueWrapper value = clientCache.get(keyOf(key));
+        if (value == null) {
+            return null;
+        }
+        CacheEntryDescriptor.CacheEntryDescriptorBuilder entry = CacheEntryDescriptor.builder().key(key);
+        if (value.get() instanceof ResponseEntity) {
+            ResponseEntity<?> response = (ResponseEntity<?>) value.get();
+            entry.status(response.getStatusCodeValue()).value(response.getBody());
+        } else {
+            entry.value(value.get());
+        }
+        return entry.build();
+    }
+
+    @DeleteOperation
+    public boolean evict(@Selector String cache, @Selector String key) {
+        Cache clientCache = cacheManager.getCache(cache);
+        if (clientCache == null) {
+            throw new InvalidEndpointRequestException("Unknown cache " + cache, "Unknown cache");
+        }
+        return clientCache.evictIfPresent(keyOf(key));
+    }
+
+    /**
+     * The client caches are keyed by user or team id.
+     */
+    private static UUID keyOf(String key) {
+        try {
+            return UUID.fromString(key);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException("Invalid cache key " + key, "Invalid cache key");
+        }
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        return cache instanceof CaffeineCache ? ((CaffeineCache) cache).getNativeCache() : null;
+    }
+
+    private static CacheDescriptor describe(com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+        if (cache == null) {
+            return null;
+        }
+        CacheStats stats = cache.stats();
+        return CacheDescriptor.builder()
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    @Builder
+    @Getter
+    public static class CacheDescriptor {
+
+        private final long size;
+        private final long hitCount;
+        private final long missCount;
+        private final double hitRate;
+        private final long evictionCount;
+
+    }
+
+    @Builder
+    @Getter
+    public static class CacheEntriesDescriptor {
+
+        private final CacheDescriptor stats;
+        private final List<String> keys;
+
+    }
+
+    @Builder
+    @Getter
+    public static class CacheEntryDescriptor {
+
+        private final String key;
+        private final Integer status;
+        private final Object value;
+
+    }
+}
@@ -0,0 +1,48 @@
+package com.ecore.roles.web.actuator;
+
+import com.ecore.roles.index.MembershipViews;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the membership views under {@code /actuator/membershipviews}. A POST compares them with
+ * the database, and reloads them when they are found inconsistent if {@code repair} is set.
+ */
+@RequiredArgsConstructor
+@Component
+@Endpoint(id = "membershipviews")
+public class MembershipViewsEndpoint {
+
+    private final MembershipViews membershipViews;
+
+    @ReadOperation
+    public ViewsDescriptor views() {
+        return ViewsDescriptor.builder()
+                .ready(membershipViews.isReady())
+                .size(membershipViews.size())
+                .build();
+    }
+
+    @WriteOperation
+    public MembershipViews.ConsistencyReport check(@Nullable Boolean repair) {
+        if (!membershipViews.isReady()) {
+            return null;
+        }
+        return membershipViews.check(Boolean.TRUE.equals(repair));
+    }
+
+    @Builder
+    @Getter
+    public static class ViewsDescriptor {
+
+        private final boolean ready;
+        private final int size;
+
+    }
+}
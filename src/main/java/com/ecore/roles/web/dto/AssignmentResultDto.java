@@ -0,0 +1,50 @@
+package com.ecore.roles.web.dto;
+
+import com.ecore.roles.model.AssignmentResult;
+import com.ecore.roles.web.rest.DefaultExceptionHandler;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class AssignmentResultDto {
+
+    @JsonProperty
+    private int index;
+
+    @JsonProperty
+    private int status;
+
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private MembershipDto membership;
+
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public static AssignmentResultDto fromModel(int index, AssignmentResult result) {
+        if (result.isAssigned()) {
+            return AssignmentResultDto.builder()
+                    .index(index)
+                    .status(200)
+                    .membership(MembershipDto.fromModel(result.getMembership()))
+                    .build();
+        }
+        return AssignmentResultDto.builder()
+                .index(index)
+                .status(DefaultExceptionHandler.statusOf(result.getError()))
+                .error(result.getError().getMessage())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecore.roles.web.dto;
+
+import com.ecore.roles.model.AssignmentStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Status of a queued role assignment: 202 while it waits to be written, then 200 with the stored
+ * membership, or the status and message of the error that rejected it.
+ */
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@Builder
+@EqualsAndHashCode
+public class AssignmentStatusDto {
+
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UUID trackingId;
+
+    @JsonProperty
+    private int status;
+
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private MembershipDto membership;
+
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String error;
+
+    public static AssignmentStatusDto fromModel(AssignmentStatus status) {
+        if (status.isPending()) {
+            return AssignmentStatusDto.builder()
+                    .trackingId(status.getTrackingId())
+                    .status(202)
+                    .build();
+        }
+        AssignmentResultDto result = AssignmentResultDto.fromModel(0, status.getResult());
+        return AssignmentStatusDto.builder()
+                .trackingId(status.getTrackingId())
+                .status(result.getStatus())
+                .membership(result.getMembership())
+                .error(result.getError())
+                .build();
+    }
+}
@@ -1,7 +1,9 @@
 package com.ecore.roles.web.dto;
 
 import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
 import com.ecore.roles.model.Role;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -45,6 +47,20 @@ public class MembershipDto {
     @EqualsAndHashCode.Include
     private UUID teamId;
 
+    /**
+     * The id and display name of the user, when the search was asked to expand users.
+     */
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UserDto user;
+
+    /**
+     * The id and name of the team, when the search was asked to expand teams.
+     */
+    @JsonProperty
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TeamDto team;
+
     public static MembershipDto fromModel(Membership membership) {
         if (membership == null) {
             return null;
@@ -57,6 +73,18 @@ public class MembershipDto {
                 .build();
     }
 
+    public static MembershipDto fromModel(MembershipIds membership) {
+        if (membership == null) {
+            return null;
+        }
+        return MembershipDto.builder()
+                .id(membership.getId())
+                .roleId(membership.getRoleId())
+                .userId(membership.getUserId())
+                .teamId(membership.getTeamId())
+                .build();
+    }
+
     public Membership toModel() {
         return Membership.builder()
                 .id(this.id)
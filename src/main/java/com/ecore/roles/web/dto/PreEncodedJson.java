@@ -0,0 +1,42 @@
+package com.ecore.roles.web.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+
+import java.util.AbstractList;
+import java.util.List;
+
+/**
+ * A list of DTOs together with its JSON encoding. JSON responses write the stored bytes as they
+ * are, other representations serialize the items as for any list.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PreEncodedJson<T> extends AbstractList<T> {
+
+    private final List<T> items;
+    private final byte[] json;
+
+    public static <T> PreEncodedJson<T> encode(ObjectMapper objectMapper, List<T> items) {
+        try {
+            return new PreEncodedJson<>(List.copyOf(items), objectMapper.writeValueAsBytes(items));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode the response", e);
+        }
+    }
+
+    public byte[] getJson() {
+        return json;
+    }
+
+    @Override
+    public T get(int index) {
+        return items.get(index);
+    }
+
+    @Override
+    public int size() {
+        return items.size();
+    }
+}
@@ -1,35 +1,71 @@
 package com.ecore.roles.web.rest;
 
 import com.ecore.roles.exception.ErrorResponse;
+import com.ecore.roles.exception.InvalidArgumentException;
 import com.ecore.roles.exception.ResourceExistsException;
 import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.exception.UpstreamUnavailableException;
+import com.ecore.roles.exception.WriteQueueFullException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
+import java.util.Map;
+
 @ControllerAdvice
 public class DefaultExceptionHandler {
 
-    @ExceptionHandler
-    public ResponseEntity<ErrorResponse> handle(ResourceNotFoundException exception) {
-        return createResponse(404, exception.getMessage());
-    }
+    /**
+     * Status of each exception the API answers itself, found by the class of the exception or else of
+     * its closest superclass. Thrown errors and errors returned per item are both reported from it.
+     */
+    private static final Map<Class<? extends RuntimeException>, Integer> STATUSES = Map.of(
+            ResourceNotFoundException.class, 404,
+            ResourceExistsException.class, 400,
+            InvalidArgumentException.class, 400,
+            DataIntegrityViolationException.class, 400,
+            UpstreamUnavailableException.class, 503,
+            WriteQueueFullException.class, 429,
+            IllegalStateException.class, 500);
 
     @ExceptionHandler
-    public ResponseEntity<ErrorResponse> handle(ResourceExistsException exception) {
-        return createResponse(400, exception.getMessage());
+    public ResponseEntity<ErrorResponse> handle(RuntimeException exception) {
+        Integer status = mappedStatusOf(exception);
+        if (status == null) {
+            // left to the default resolvers of Spring MVC, which answer its own exceptions
+            throw exception;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (exception instanceof WriteQueueFullException) {
+            // backpressure from the membership write queue: retry once the writer has caught up
+            response.header(HttpHeaders.RETRY_AFTER, "1");
+        }
+        String error = exception instanceof DataIntegrityViolationException
+                ? "The request conflicts with stored data"
+                : exception.getMessage();
+        return response.body(ErrorResponse.builder()
+                .status(status)
+                .error(error).build());
     }
 
-    @ExceptionHandler
-    public ResponseEntity<ErrorResponse> handle(IllegalStateException exception) {
-        return createResponse(500, exception.getMessage());
+    /**
+     * Status reported for errors that are returned per item instead of being thrown, the same as when
+     * they are thrown.
+     */
+    public static int statusOf(RuntimeException exception) {
+        Integer status = mappedStatusOf(exception);
+        return status == null ? 500 : status;
     }
 
-    private ResponseEntity<ErrorResponse> createResponse(int status, String exception) {
-        return ResponseEntity
-                .status(status)
-                .body(ErrorResponse.builder()
-                        .status(status)
-                        .error(exception).build());
+    private static Integer mappedStatusOf(RuntimeException exception) {
+        for (Class<?> type = exception.getClass(); type != null; type = type.getSuperclass()) {
+            Integer status = STATUSES.get(type);
+            if (status != null) {
+                return status;
+            }
+        }
+        return null;
     }
 }
@@ -0,0 +1,142 @@
+package com.ecore.roles.web.rest;
+
+import com.ecore.roles.model.KeysetPage;
+import com.ecore.roles.web.dto.MembershipDto;
+import com.ecore.roles.web.dto.RoleDto;
+import com.ecore.roles.web.dto.TeamDto;
+import com.ecore.roles.web.dto.UserDto;
+import org.springframework.http.MediaType;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Strong entity tags for the read endpoints, computed from the fields that make up a response
+ * instead of from its serialized bytes, so a conditional request can be answered with 304 before
+ * anything is written. Page continuation tokens are part of the tag since they are part of the
+ * response, and so is the negotiated media type, since the same fields encoded as JSON, CBOR or
+ * Smile are different representations that a cache must not swap.
+ */
+final class EntityTags {
+
+    private static final long SEED = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private EntityTags() {}
+
+    static String of(RoleDto role, MediaType format) {
+        return tag(mix(SEED, role), format);
+    }
+
+    static String ofRoles(List<RoleDto> roles, KeysetPage<?> page, MediaType format) {
+        long hash = SEED;
+        for (RoleDto role : roles) {
+            hash = mix(hash, role);
+        }
+        return tag(mix(hash, page.getNextPageToken()), format);
+    }
+
+    static String of(UserDto user, MediaType format) {
+        return tag(mix(SEED, user), format);
+    }
+
+    static String ofUsers(List<UserDto> users, MediaType format) {
+        long hash = SEED;
+        for (UserDto user : users) {
+            hash = mix(hash, user);
+        }
+        return tag(mix(hash, users.size()), format);
+    }
+
+    static String of(TeamDto team, MediaType format) {
+        return tag(mix(SEED, team), format);
+    }
+
+    static String ofTeams(List<TeamDto> teams, MediaType format) {
+        long hash = SEED;
+        for (TeamDto team : teams) {
+            hash = mix(hash, team);
+        }
+        return tag(mix(hash, teams.size()), format);
+    }
+
+    static String ofMemberships(List<MembershipDto> memberships, KeysetPage<?> page, MediaType format) {
+        long hash = SEED;
+        for (MembershipDto membership : memberships) {
+            hash = mix(hash, membership.getId());
+            hash = mix(hash, membership.getRoleId());
+            hash = mix(hash, membership.getUserId());
+            hash = mix(hash, membership.getTeamId());
+            if (membership.getUser() != null) {
+                hash = mix(hash, membership.getUser());
+            }
+            if (membership.getTeam() != null) {
+                hash = mix(hash, membership.getTeam());
+            }
+        }
+        return tag(mix(hash, page.getNextPageToken()), format);
+    }
+
+    private static long mix(long hash, RoleDto role) {
+        hash = mix(hash, role.getId());
+        return mix(hash, role.getName());
+    }
+
+    private static long mix(long hash, UserDto user) {
+        hash = mix(hash, user.getId());
+        hash = mix(hash, user.getFirstName());
+        hash = mix(hash, user.getLastName());
+        hash = mix(hash, user.getDisplayName());
+        hash = mix(hash, user.getAvatarUrl());
+        return mix(hash, user.getLocation());
+    }
+
+    private static long mix(long hash, TeamDto team) {
+        hash = mix(hash, team.getId());
+        hash = mix(hash, team.getName());
+        hash = mix(hash, team.getTeamLeadId());
+        return mix(hash, team.getTeamMemberIds());
+    }
+
+    private static long mix(long hash, Collection<UUID> ids) {
+        if (ids == null) {
+            return mix(hash, -1L);
+        }
+        for (UUID id : ids) {
+            hash = mix(hash, id);
+        }
+        return mix(hash, ids.size());
+    }
+
+    private static long mix(long hash, UUID id) {
+        if (id == null) {
+            return mix(hash, -1L);
+        }
+        hash = mix(hash, id.getMostSignificantBits());
+        return mix(hash, id.getLeastSignificantBits());
+    }
+
+    /**
+     * Strings are length-prefixed so that adjacent fields cannot run into each other.
+     */
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1L);
+        }
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            hash = mix(hash, value.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash = (hash ^ value) * PRIME;
+        return hash ^ (hash >>> 29);
+    }
+
+    private static String tag(long hash, MediaType format) {
+        return "\"" + Long.toHexString(mix(hash, format.toString())) + "\"";
+    }
+}
@@ -0,0 +1,55 @@
+package com.ecore.roles.web.rest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.HttpServletRequest;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Representations offered by the endpoints, picked from the {@code Accept} header. JSON comes first
+ * so that it stays the default for callers that accept anything.
+ */
+final class MediaTypes {
+
+    static final String JSON = "application/json";
+
+    static final String CBOR = "application/cbor";
+
+    static final String SMILE = "application/x-jackson-smile";
+
+    static final List<MediaType> PRODUCED =
+            List.of(MediaType.valueOf(JSON), MediaType.valueOf(CBOR), MediaType.valueOf(SMILE));
+
+    private MediaTypes() {}
+
+    /**
+     * Returns the representation the current request will be answered with, picked from its
+     * {@code Accept} header as Spring MVC picks it: the most preferred accepted type that one of the
+     * offered ones matches, JSON when there is none. Must be called on the request thread, so that
+     * asynchronous endpoints can tag their responses before they leave it.
+     */
+    static MediaType negotiated() {
+        HttpServletRequest request =
+                ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(Collections.list(request.getHeaders(HttpHeaders.ACCEPT)));
+        } catch (InvalidMediaTypeException e) {
+            return PRODUCED.get(0);
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType acceptable : accepted) {
+            for (MediaType produced : PRODUCED) {
+                if (acceptable.isCompatibleWith(produced)) {
+                    return produced;
+                }
+            }
+        }
+        return PRODUCED.get(0);
+    }
+}
@@ -1,58 +1,263 @@
 package com.ecore.roles.web.rest;
 
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.client.model.User;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import com.ecore.roles.configuration.ResponseCachingConfigurationProperties;
+import com.ecore.roles.exception.InvalidArgumentException;
+import com.ecore.roles.model.AssignmentResult;
+import com.ecore.roles.model.AssignmentStatus;
+import com.ecore.roles.model.KeysetPage;
 import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
 import com.ecore.roles.service.MembershipsService;
+import com.ecore.roles.service.TeamsService;
+import com.ecore.roles.service.UsersService;
 import com.ecore.roles.web.MembershipsApi;
+import com.ecore.roles.web.dto.AssignmentResultDto;
+import com.ecore.roles.web.dto.AssignmentStatusDto;
 import com.ecore.roles.web.dto.MembershipDto;
+import com.ecore.roles.web.dto.TeamDto;
+import com.ecore.roles.web.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.ecore.roles.web.dto.MembershipDto.fromModel;
+import static com.ecore.roles.web.rest.MediaTypes.CBOR;
+import static com.ecore.roles.web.rest.MediaTypes.JSON;
+import static com.ecore.roles.web.rest.MediaTypes.SMILE;
+import static com.ecore.roles.web.rest.MediaTypes.negotiated;
+import static com.ecore.roles.web.rest.Preferences.PREFER;
+import static com.ecore.roles.web.rest.Preferences.PREFERENCE_APPLIED;
+import static com.ecore.roles.web.rest.Preferences.RESPOND_ASYNC;
+import static com.ecore.roles.web.rest.Preferences.prefers;
 
 @RequiredArgsConstructor
 @RestController
 @RequestMapping(value = "/v1/roles/memberships")
 public class MembershipsRestController implements MembershipsApi {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String EXPAND_USER = "user";
+    private static final String EXPAND_TEAM = "team";
+    private static final Set<String> EXPANSIONS = Set.of(EXPAND_USER, EXPAND_TEAM);
+
     private final MembershipsService membershipsService;
+    private final UsersService usersService;
+    private final TeamsService teamsService;
+    private final ClientsConfigurationProperties clientsConfigurationProperties;
+    private final ObjectMapper objectMapper;
+    private final ResponseCachingConfigurationProperties responseCachingConfigurationProperties;
 
+    /**
+     * Assigns the role and answers with the stored membership. Clients preferring to be answered before
+     * it is stored send {@code Prefer: respond-async}: with write-behind enabled the assignment is
+     * validated, queued and answered with 202 and a tracking id to poll
+     * {@code /assignments/{trackingId}} with. Otherwise the preference is ignored.
+     */
     @Override
     @PostMapping(
             consumes = {"application/json"},
-            produces = {"application/json"})
-    public ResponseEntity<MembershipDto> assignRoleToMembership(
-            @NotNull @Valid @RequestBody MembershipDto membershipDto) {
-        Membership membership = membershipsService.assignRoleToMembership(membershipDto.toModel());
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<?> assignRoleToMembership(
+            @NotNull @Valid @RequestBody MembershipDto membershipDto,
+            @RequestHeader(name = PREFER, required = false) List<String> preferences) {
+        if (!prefers(preferences, RESPOND_ASYNC)) {
+            Membership membership = membershipsService.assignRoleToMembership(membershipDto.toModel());
+            return ResponseEntity
+                    .status(201)
+                    .body(fromModel(membership));
+        }
+        AssignmentStatus status = membershipsService.queueRoleAssignment(membershipDto.toModel());
+        if (!status.isPending()) {
+            return ResponseEntity
+                    .status(201)
+                    .body(fromModel(status.getResult().getMembership()));
+        }
+        return ResponseEntity
+                .status(202)
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri()
+                        .path("/assignments/{trackingId}")
+                        .buildAndExpand(status.getTrackingId())
+                        .toUri())
+                .header(PREFERENCE_APPLIED, RESPOND_ASYNC)
+                .body(AssignmentStatusDto.fromModel(status));
+    }
+
+    @Override
+    @GetMapping(
+            path = "/assignments/{trackingId}",
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<AssignmentStatusDto> getAssignmentStatus(
+            @PathVariable UUID trackingId) {
         return ResponseEntity
                 .status(200)
-                .body(fromModel(membership));
+                .cacheControl(CacheControl.noStore())
+                .body(AssignmentStatusDto.fromModel(membershipsService.getAssignmentStatus(trackingId)));
     }
 
     @Override
     @PostMapping(
-            path = "/search",
-            produces = {"application/json"})
-    public ResponseEntity<List<MembershipDto>> getMemberships(
-            @RequestParam UUID roleId) {
+            path = "/batch",
+            consumes = {"application/json"},
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<List<AssignmentResultDto>> assignRolesToMemberships(
+            @NotNull @RequestBody List<MembershipDto> membershipDtos) {
+        List<Membership> memberships = membershipDtos.stream()
+                .map(dto -> dto == null ? null : dto.toModel())
+                .collect(Collectors.toList());
+        List<AssignmentResult> results = membershipsService.assignRolesToMemberships(memberships);
 
-        List<Membership> memberships = membershipsService.getMemberships(roleId);
+        List<AssignmentResultDto> resultDtos = new ArrayList<>();
+        for (int i = 0; i < results.size(); i++) {
+            resultDtos.add(AssignmentResultDto.fromModel(i, results.get(i)));
+        }
 
-        List<MembershipDto> newMembershipDto = new ArrayList<>();
+        return ResponseEntity
+                .status(200)
+                .body(resultDtos);
+    }
+
+    /**
+     * Returns a page of the role's memberships. With {@code expand=user,team}, or either of the two,
+     * each membership also carries the display name of its user and the name of its team, resolved for
+     * the distinct ids of the page through the cached bulk lookups, so that clients do not have to look
+     * every row up themselves.
+     */
+    @Override
+    @RequestMapping(
+            path = "/search",
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<List<MembershipDto>> getMemberships(
+            @RequestParam UUID roleId,
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer pageSize,
+            @RequestParam(required = false) Set<String> expand) {
+        Set<String> expansions = expand == null ? Set.of() : expand;
+        if (!EXPANSIONS.containsAll(expansions)) {
+            throw new InvalidArgumentException(Membership.class, "Only user and team can be expanded.");
+        }
 
-        for (Membership membership : memberships) {
-            MembershipDto membershipDto = fromModel(membership);
-            newMembershipDto.add(membershipDto);
+        KeysetPage<MembershipIds> page = membershipsService.getMemberships(roleId, pageToken, pageSize);
+        List<MembershipDto> memberships = page.getItems().stream()
+                .map(MembershipDto::fromModel)
+                .collect(Collectors.toList());
+        if (expansions.contains(EXPAND_USER)) {
+            expandUsers(memberships);
+        }
+        if (expansions.contains(EXPAND_TEAM)) {
+            expandTeams(memberships);
         }
 
         return ResponseEntity
                 .status(200)
-                .body(newMembershipDto);
+                .headers(PageHeaders.of(page))
+                .cacheControl(ResponseCachingConfigurationProperties.cacheControl(
+                        responseCachingConfigurationProperties.getMemberships()))
+                .eTag(EntityTags.ofMemberships(memberships, page, negotiated()))
+                .body(memberships);
+    }
+
+    /**
+     * Streams the matching memberships as newline delimited JSON while they are read from the database,
+     * so the response size does not bound the memory used.
+     */
+    @Override
+    @PostMapping(
+            path = "/export",
+            produces = {NDJSON})
+    public ResponseEntity<StreamingResponseBody> exportMemberships(
+            @RequestParam(required = false) UUID roleId,
+            @RequestParam(required = false) UUID teamId) {
+        ObjectWriter writer = objectMapper.writerFor(MembershipDto.class);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream buffered = new BufferedOutputStream(outputStream, 64 * 1024);
+            membershipsService.exportMemberships(roleId, teamId, membership -> {
+                try {
+                    buffered.write(writer.writeValueAsBytes(fromModel(membership)));
+                    buffered.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            buffered.flush();
+        };
+        return ResponseEntity
+                .status(200)
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Leaves the user out of the memberships whose user the Users API does not know.
+     */
+    private void expandUsers(List<MembershipDto> memberships) {
+        Map<UUID, UserDto> users = new HashMap<>();
+        for (List<UUID> ids : chunks(memberships, MembershipDto::getUserId)) {
+            for (User user : usersService.getUsers(ids)) {
+                users.put(user.getId(), UserDto.builder()
+                        .id(user.getId())
+                        .displayName(user.getDisplayName())
+                        .build());
+            }
+        }
+        memberships.forEach(membership -> membership.setUser(users.get(membership.getUserId())));
+    }
+
+    /**
+     * Leaves the team out of the memberships whose team the Teams API does not know.
+     */
+    private void expandTeams(List<MembershipDto> memberships) {
+        Map<UUID, TeamDto> teams = new HashMap<>();
+        for (List<UUID> ids : chunks(memberships, MembershipDto::getTeamId)) {
+            for (Team team : teamsService.getTeams(ids)) {
+                teams.put(team.getId(), TeamDto.builder()
+                        .id(team.getId())
+                        .name(team.getName())
+                        .build());
+            }
+        }
+        memberships.forEach(membership -> membership.setTeam(teams.get(membership.getTeamId())));
+    }
+
+    /**
+     * Splits the distinct ids of the page into lists the bulk lookups accept, at most the fan-out batch
+     * size each.
+     */
+    private List<List<UUID>> chunks(List<MembershipDto> memberships, Function<MembershipDto, UUID> idOf) {
+        List<UUID> ids = new ArrayList<>(memberships.stream()
+                .map(idOf)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+        int chunkSize = clientsConfigurationProperties.getFanOut().getMaxBatchSize();
+        List<List<UUID>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
     }
 
 }
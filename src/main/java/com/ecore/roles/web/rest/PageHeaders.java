@@ -0,0 +1,23 @@
+package com.ecore.roles.web.rest;
+
+import com.ecore.roles.model.KeysetPage;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Paged listings keep returning a plain JSON array and hand out the continuation token in a header,
+ * which is absent on the last page.
+ */
+final class PageHeaders {
+
+    static final String NEXT_PAGE_TOKEN = "Next-Page-Token";
+
+    private PageHeaders() {}
+
+    static HttpHeaders of(KeysetPage<?> page) {
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextPageToken() != null) {
+            headers.set(NEXT_PAGE_TOKEN, page.getNextPageToken());
+        }
+        return headers;
+    }
+}
@@ -0,0 +1,37 @@
+package com.ecore.roles.web.rest;
+
+import java.util.List;
+
+/**
+ * Preferences a client sends in {@code Prefer} headers (RFC 7240): a comma separated list of
+ * tokens, each optionally followed by a value and parameters, e.g. {@code respond-async, wait=5}.
+ */
+final class Preferences {
+
+    static final String PREFER = "Prefer";
+
+    static final String PREFERENCE_APPLIED = "Preference-Applied";
+
+    static final String RESPOND_ASYNC = "respond-async";
+
+    private Preferences() {}
+
+    /**
+     * Returns whether one of the header values holds the preference, whatever its value and parameters.
+     * Preference tokens are compared ignoring case.
+     */
+    static boolean prefers(List<String> headerValues, String preference) {
+        if (headerValues == null) {
+            return false;
+        }
+        for (String headerValue : headerValues) {
+            for (String element : headerValue.split(",")) {
+                String token = element.split("[=;]", 2)[0].trim();
+                if (token.equalsIgnoreCase(preference)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
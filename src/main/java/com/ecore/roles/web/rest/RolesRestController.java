@@ -1,19 +1,32 @@
 package com.ecore.roles.web.rest;
 
+import com.ecore.roles.configuration.ResponseCachingConfigurationProperties;
+import com.ecore.roles.model.KeysetPage;
 import com.ecore.roles.model.Role;
 import com.ecore.roles.service.RolesService;
 import com.ecore.roles.web.RolesApi;
+import com.ecore.roles.web.dto.PreEncodedJson;
 import com.ecore.roles.web.dto.RoleDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static com.ecore.roles.web.dto.RoleDto.fromModel;
+import static com.ecore.roles.web.rest.MediaTypes.CBOR;
+import static com.ecore.roles.web.rest.MediaTypes.JSON;
+import static com.ecore.roles.web.rest.MediaTypes.SMILE;
+import static com.ecore.roles.web.rest.MediaTypes.negotiated;
 
 @RequiredArgsConstructor
 @RestController
@@ -21,46 +34,109 @@ import static com.ecore.roles.web.dto.RoleDto.fromModel;
 public class RolesRestController implements RolesApi {
 
     private final RolesService rolesService;
+    private final ObjectMapper objectMapper;
+    private final ResponseCachingConfigurationProperties responseCachingConfigurationProperties;
+
+    private final AtomicReference<EncodedPage> firstPage = new AtomicReference<>();
 
     @Override
     @PostMapping(
             consumes = {"application/json"},
-            produces = {"application/json"})
+            produces = {JSON, CBOR, SMILE})
     public ResponseEntity<RoleDto> createRole(
             @Valid @RequestBody RoleDto role) {
         return ResponseEntity
-                .status(200)
+                .status(201)
                 .body(fromModel(rolesService.CreateRole(role.toModel())));
     }
 
     @Override
-    @PostMapping(
-            produces = {"application/json"})
-    public ResponseEntity<List<RoleDto>> getRoles() {
+    @RequestMapping(
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<List<RoleDto>> getRoles(
+            @RequestParam(required = false) String pageToken,
+            @RequestParam(required = false) Integer pageSize) {
 
-        List<Role> getRoles = rolesService.GetRoles();
+        KeysetPage<Role> page = rolesService.GetRoles(pageToken, pageSize);
+        EncodedPage encoded = pageToken == null ? encodeFirstPage(page) : null;
+        List<RoleDto> body = encoded != null ? encoded.body : encode(page);
+        MediaType format = negotiated();
 
-        List<RoleDto> roleDtoList = new ArrayList<>();
+        return ResponseEntity
+                .status(200)
+                .headers(PageHeaders.of(page))
+                .cacheControl(cacheControl())
+                .eTag(encoded != null ? encoded.eTags.get(format) : EntityTags.ofRoles(body, page, format))
+                .body(body);
+    }
 
-        for (Role role : getRoles) {
-            RoleDto roleDto = fromModel(role);
-            roleDtoList.add(roleDto);
+    /**
+     * The role catalog hands out the same first page instance until a role is created, so its encoded
+     * body and its entity tag in each offered format are kept and reused for as long as that instance
+     * is returned.
+     */
+    private EncodedPage encodeFirstPage(KeysetPage<Role> page) {
+        EncodedPage encoded = firstPage.get();
+        if (encoded != null && encoded.page == page) {
+            return encoded;
         }
+        List<RoleDto> roles = encode(page);
+        Map<MediaType, String> eTags = MediaTypes.PRODUCED.stream()
+                .collect(Collectors.toMap(Function.identity(),
+                        format -> EntityTags.ofRoles(roles, page, format)));
+        encoded = new EncodedPage(page, PreEncodedJson.encode(objectMapper, roles), eTags);
+        firstPage.set(encoded);
+        return encoded;
+    }
+
+    private static List<RoleDto> encode(KeysetPage<Role> page) {
+        return page.getItems().stream()
+                .map(RoleDto::fromModel)
+                .collect(Collectors.toList());
+    }
+
+    @RequiredArgsConstructor
+    private static final class EncodedPage {
+
+        private final KeysetPage<Role> page;
+        private final PreEncodedJson<RoleDto> body;
+        private final Map<MediaType, String> eTags;
 
-        return ResponseEntity
-                .status(200)
-                .body(roleDtoList);
     }
 
     @Override
-    @PostMapping(
+    @RequestMapping(
             path = "/{roleId}",
-            produces = {"application/json"})
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
     public ResponseEntity<RoleDto> getRole(
             @PathVariable UUID roleId) {
+        return ok(fromModel(rolesService.GetRole(roleId)), negotiated());
+    }
+
+    @Override
+    @RequestMapping(
+            path = "/search",
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<RoleDto> getRole(
+            @RequestParam(name = "teamMemberId") UUID userId,
+            @RequestParam UUID teamId) {
+        return ok(fromModel(rolesService.GetRole(userId, teamId)), negotiated());
+    }
+
+    private ResponseEntity<RoleDto> ok(RoleDto role, MediaType format) {
         return ResponseEntity
                 .status(200)
-                .body(fromModel(rolesService.GetRole(roleId)));
+                .cacheControl(cacheControl())
+                .eTag(EntityTags.of(role, format))
+                .body(role);
+    }
+
+    private CacheControl cacheControl() {
+        return ResponseCachingConfigurationProperties.cacheControl(
+                responseCachingConfigurationProperties.getRoles());
     }
 
 }
@@ -1,20 +1,30 @@
 package com.ecore.roles.web.rest;
 
+import com.ecore.roles.configuration.ResponseCachingConfigurationProperties;
 import com.ecore.roles.service.TeamsService;
 import com.ecore.roles.web.TeamsApi;
 import com.ecore.roles.web.dto.TeamDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.constraints.NotNull;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.ecore.roles.web.dto.TeamDto.fromModel;
+import static com.ecore.roles.web.rest.MediaTypes.CBOR;
+import static com.ecore.roles.web.rest.MediaTypes.JSON;
+import static com.ecore.roles.web.rest.MediaTypes.SMILE;
+import static com.ecore.roles.web.rest.MediaTypes.negotiated;
 
 @RequiredArgsConstructor
 @RestController
@@ -22,27 +32,86 @@ import static com.ecore.roles.web.dto.TeamDto.fromModel;
 public class TeamsRestController implements TeamsApi {
 
     private final TeamsService teamsService;
+    private final ResponseCachingConfigurationProperties responseCachingConfigurationProperties;
 
     @Override
-    @PostMapping(
-            produces = {"application/json"})
+    @RequestMapping(
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
     public ResponseEntity<List<TeamDto>> getTeams() {
+        return okTeams(teamsService.getTeams().stream()
+                .map(TeamDto::fromModel)
+                .collect(Collectors.toList()), negotiated());
+    }
+
+    @Override
+    @PostMapping(
+            path = "/batch",
+            consumes = {"application/json"},
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<List<TeamDto>> getTeams(
+            @NotNull @RequestBody List<UUID> teamIds) {
         return ResponseEntity
                 .status(200)
-                .body(teamsService.getTeams().stream()
+                .body(teamsService.getTeams(teamIds).stream()
                         .map(TeamDto::fromModel)
                         .collect(Collectors.toList()));
     }
 
     @Override
-    @PostMapping(
+    @RequestMapping(
             path = "/{teamId}",
-            produces = {"application/json"})
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
     public ResponseEntity<TeamDto> getTeam(
             @PathVariable UUID teamId) {
+        return ok(fromModel(teamsService.getTeam(teamId)), negotiated());
+    }
+
+    @Override
+    @RequestMapping(
+            path = "/async",
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
+    public CompletableFuture<ResponseEntity<List<TeamDto>>> getTeamsAsync() {
+        MediaType format = negotiated();
+        return teamsService.getTeamsAsync()
+                .thenApply(teams -> okTeams(teams.stream()
+                        .map(TeamDto::fromModel)
+                        .collect(Collectors.toList()), format));
+    }
+
+    @Override
+    @RequestMapping(
+            path = "/async/{teamId}",
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
+    public CompletableFuture<ResponseEntity<TeamDto>> getTeamAsync(
+            @PathVariable UUID teamId) {
+        MediaType format = negotiated();
+        return teamsService.getTeamAsync(teamId)
+                .thenApply(team -> ok(fromModel(team), format));
+    }
+
+    /**
+     * Answers 200 with the body, or 304 without serializing it when the request carries a matching
+     * {@code If-None-Match}.
+     */
+    private ResponseEntity<TeamDto> ok(TeamDto team, MediaType format) {
         return ResponseEntity
                 .status(200)
-                .body(fromModel(teamsService.getTeam(teamId)));
+                .cacheControl(ResponseCachingConfigurationProperties.cacheControl(
+                        responseCachingConfigurationProperties.getTeams()))
+                .eTag(EntityTags.of(team, format))
+                .body(team);
     }
 
+    private ResponseEntity<List<TeamDto>> okTeams(List<TeamDto> teams, MediaType format) {
+        return ResponseEntity
+                .status(200)
+                .cacheControl(ResponseCachingConfigurationProperties.cacheControl(
+                        responseCachingConfigurationProperties.getTeams()))
+                .eTag(EntityTags.ofTeams(teams, format))
+                .body(teams);
+    }
 }
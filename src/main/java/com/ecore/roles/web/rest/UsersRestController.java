@@ -1,20 +1,30 @@
 package com.ecore.roles.web.rest;
 
+import com.ecore.roles.configuration.ResponseCachingConfigurationProperties;
 import com.ecore.roles.service.UsersService;
 import com.ecore.roles.web.UsersApi;
 import com.ecore.roles.web.dto.UserDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.validation.constraints.NotNull;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.ecore.roles.web.dto.UserDto.fromModel;
+import static com.ecore.roles.web.rest.MediaTypes.CBOR;
+import static com.ecore.roles.web.rest.MediaTypes.JSON;
+import static com.ecore.roles.web.rest.MediaTypes.SMILE;
+import static com.ecore.roles.web.rest.MediaTypes.negotiated;
 
 @RequiredArgsConstructor
 @RestController
@@ -22,26 +32,86 @@ import static com.ecore.roles.web.dto.UserDto.fromModel;
 public class UsersRestController implements UsersApi {
 
     private final UsersService usersService;
+    private final ResponseCachingConfigurationProperties responseCachingConfigurationProperties;
 
     @Override
-    @PostMapping(
-            produces = {"application/json"})
+    @RequestMapping(
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
     public ResponseEntity<List<UserDto>> getUsers() {
+        return okUsers(usersService.getUsers().stream()
+                .map(UserDto::fromModel)
+                .collect(Collectors.toList()), negotiated());
+    }
+
+    @Override
+    @PostMapping(
+            path = "/batch",
+            consumes = {"application/json"},
+            produces = {JSON, CBOR, SMILE})
+    public ResponseEntity<List<UserDto>> getUsers(
+            @NotNull @RequestBody List<UUID> userIds) {
         return ResponseEntity
                 .status(200)
-                .body(usersService.getUsers().stream()
+                .body(usersService.getUsers(userIds).stream()
                         .map(UserDto::fromModel)
                         .collect(Collectors.toList()));
     }
 
     @Override
-    @PostMapping(
+    @RequestMapping(
             path = "/{userId}",
-            produces = {"application/json"})
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
     public ResponseEntity<UserDto> getUser(
             @PathVariable UUID userId) {
+        return ok(fromModel(usersService.getUser(userId)), negotiated());
+    }
+
+    @Override
+    @RequestMapping(
+            path = "/async",
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
+    public CompletableFuture<ResponseEntity<List<UserDto>>> getUsersAsync() {
+        MediaType format = negotiated();
+        return usersService.getUsersAsync()
+                .thenApply(users -> okUsers(users.stream()
+                        .map(UserDto::fromModel)
+                        .collect(Collectors.toList()), format));
+    }
+
+    @Override
+    @RequestMapping(
+            path = "/async/{userId}",
+            method = {RequestMethod.GET, RequestMethod.POST},
+            produces = {JSON, CBOR, SMILE})
+    public CompletableFuture<ResponseEntity<UserDto>> getUserAsync(
+            @PathVariable UUID userId) {
+        MediaType format = negotiated();
+        return usersService.getUserAsync(userId)
+                .thenApply(user -> ok(fromModel(user), format));
+    }
+
+    /**
+     * Answers 200 with the body, or 304 without serializing it when the request carries a matching
+     * {@code If-None-Match}.
+     */
+    private ResponseEntity<UserDto> ok(UserDto user, MediaType format) {
+        return ResponseEntity
+                .status(200)
+                .cacheControl(ResponseCachingConfigurationProperties.cacheControl(
+                        responseCachingConfigurationProperties.getUsers()))
+                .eTag(EntityTags.of(user, format))
+                .body(user);
+    }
+
+    private ResponseEntity<List<UserDto>> okUsers(List<UserDto> users, MediaType format) {
         return ResponseEntity
                 .status(200)
-                .body(fromModel(usersService.getUser(userId)));
+                .cacheControl(ResponseCachingConfigurationProperties.cacheControl(
+                        responseCachingConfigurationProperties.getUsers()))
+                .eTag(EntityTags.ofUsers(users, format))
+                .body(users);
     }
 }
@@ -0,0 +1,47 @@
+-- Store every UUID as 16 raw bytes instead of its 36 character text form (ids, role_id) or a
+-- binary(255) column (team_id, user_id), and add indexes for the membership access paths.
+
+create table role_v2
+(
+    id   binary(16)   not null
+        primary key,
+    name varchar(255) not null,
+    constraint uk_role_name
+        unique (name)
+);
+
+insert into role_v2(id, name)
+select cast(replace(id, '-', '') as binary(16)), name
+from role;
+
+create table membership_v2
+(
+    id      binary(16) not null
+        primary key,
+    user_id binary(16) not null,
+    team_id binary(16) not null,
+    role_id binary(16) not null,
+    constraint uk_membership_user_team
+        unique (user_id, team_id)
+);
+
+insert into membership_v2(id, user_id, team_id, role_id)
+select cast(replace(id, '-', '') as binary(16)),
+       cast(user_id as binary(16)),
+       cast(team_id as binary(16)),
+       cast(replace(role_id, '-', '') as binary(16))
+from membership;
+
+drop table membership;
+drop table role;
+
+alter table role_v2 rename to role;
+alter table membership_v2 rename to membership;
+
+-- Created before the foreign key so the key reuses it instead of adding an index of its own.
+create index idx_membership_role on membership (role_id);
+create index idx_membership_team on membership (team_id);
+
+alter table membership
+    add constraint fk_membership_role
+        foreign key (role_id) references role (id);
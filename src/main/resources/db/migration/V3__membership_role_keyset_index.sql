@@ -0,0 +1,3 @@
+-- The membership search pages through one role's memberships in id order, (role_id, id) lets it seek
+-- to the continuation point and read the page in index order.
+create index idx_membership_role_id on membership (role_id, id);
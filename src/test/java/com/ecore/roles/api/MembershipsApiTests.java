@@ -1,30 +1,67 @@
 package com.ecore.roles.api;
 
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.MembershipViews;
+import com.ecore.roles.index.TeamRosterIndex;
 import com.ecore.roles.model.Membership;
 import com.ecore.roles.model.Role;
 import com.ecore.roles.repository.MembershipRepository;
 import com.ecore.roles.utils.RestAssuredHelper;
+import com.ecore.roles.web.dto.AssignmentResultDto;
 import com.ecore.roles.web.dto.MembershipDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.restassured.response.ExtractableResponse;
+import io.restassured.response.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import static com.ecore.roles.utils.MockUtils.mockGetTeamById;
+import static com.ecore.roles.utils.MockUtils.mockGetUserById;
+import static com.ecore.roles.utils.MockUtils.mockGetUserNotFound;
 import static com.ecore.roles.utils.RestAssuredHelper.createMembership;
+import static com.ecore.roles.utils.RestAssuredHelper.createMemberships;
+import static com.ecore.roles.utils.RestAssuredHelper.exportMemberships;
+import static com.ecore.roles.utils.RestAssuredHelper.getAssignmentStatus;
 import static com.ecore.roles.utils.RestAssuredHelper.getMemberships;
+import static com.ecore.roles.utils.RestAssuredHelper.queueMembership;
+import static com.ecore.roles.utils.RestAssuredHelper.searchMemberships;
 import static com.ecore.roles.utils.TestData.*;
 import static java.lang.String.format;
+import static java.util.List.of;
+import static java.util.stream.Stream.concat;
+import static java.util.Arrays.stream;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.nullValue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class MembershipsApiTests {
 
     private final MembershipRepository membershipRepository;
+    private final MembershipIndex membershipIndex;
+    private final MembershipViews membershipViews;
+    private final TeamRosterIndex teamRosterIndex;
+    private final CacheManager cacheManager;
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
 
     private MockRestServiceServer mockServer;
 
@@ -32,16 +69,32 @@ public class MembershipsApiTests {
     private int port;
 
     @Autowired
-    public MembershipsApiTests(MembershipRepository membershipRepository, RestTemplate restTemplate) {
+    public MembershipsApiTests(
+            MembershipRepository membershipRepository,
+            MembershipIndex membershipIndex,
+            MembershipViews membershipViews,
+            TeamRosterIndex teamRosterIndex,
+            CacheManager cacheManager,
+            RestTemplate restTemplate,
+            ObjectMapper objectMapper) {
         this.membershipRepository = membershipRepository;
+        this.membershipIndex = membershipIndex;
+        this.membershipViews = membershipViews;
+        this.teamRosterIndex = teamRosterIndex;
+        this.cacheManager = cacheManager;
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
     }
 
     @BeforeEach
     void setUp() {
-        mockServer = MockRestServiceServer.createServer(restTemplate);
+        mockServer = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
         RestAssuredHelper.setUp(port);
         membershipRepository.deleteAll();
+        membershipIndex.reload();
+        membershipViews.reload();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        teamRosterIndex.invalidateAll();
     }
 
     @Test
@@ -54,6 +107,28 @@ public class MembershipsApiTests {
         assertThat(actualMembership).isEqualTo(MembershipDto.fromModel(expectedMembership));
     }
 
+    @Test
+    void shouldAssignRightAwayWhenPreferringAsyncWithWriteBehindDisabled() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        mockGetTeamById(mockServer, expectedMembership.getTeamId(), ORDINARY_CORAL_LYNX_TEAM());
+
+        MembershipDto actualMembership = queueMembership(expectedMembership, "respond-async, wait=5")
+                .statusCode(201)
+                .header("Preference-Applied", nullValue())
+                .extract().as(MembershipDto.class);
+
+        assertThat(actualMembership.getId()).isNotNull();
+        assertThat(actualMembership).isEqualTo(MembershipDto.fromModel(expectedMembership));
+        assertThat(membershipIndex.findRole(expectedMembership.getUserId(), expectedMembership.getTeamId()))
+                .isPresent();
+    }
+
+    @Test
+    void shouldFailToGetUnknownAssignmentStatus() {
+        getAssignmentStatus(UUID_1)
+                .validate(404, format("AssignmentStatus %s not found", UUID_1));
+    }
+
     @Test
     void shouldFailToCreateRoleMembershipWhenBodyIsNull() {
         createMembership(null)
@@ -104,6 +179,39 @@ public class MembershipsApiTests {
                 .validate(400, "Membership already exists");
     }
 
+    @Test
+    void shouldCreateRoleMembershipOnceUnderConcurrentWriters() throws Exception {
+        int writers = 16;
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        mockGetTeamById(mockServer, expectedMembership.getTeamId(), ORDINARY_CORAL_LYNX_TEAM());
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ExtractableResponse<Response>>> responses = new ArrayList<>();
+        try {
+            for (int i = 0; i < writers; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return createMembership(DEFAULT_MEMBERSHIP()).extract();
+                }));
+            }
+            start.countDown();
+            int created = 0;
+            for (Future<ExtractableResponse<Response>> response : responses) {
+                ExtractableResponse<Response> result = response.get();
+                if (result.statusCode() < 300) {
+                    created++;
+                } else {
+                    assertThat(result.statusCode()).isEqualTo(400);
+                    assertThat(result.jsonPath().getString("error")).isEqualTo("Membership already exists");
+                }
+            }
+            assertThat(created).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(membershipRepository.count()).isEqualTo(1);
+    }
+
     @Test
     void shouldFailToCreateRoleMembershipWhenRoleDoesNotExist() {
         Membership expectedMembership = DEFAULT_MEMBERSHIP();
@@ -132,6 +240,41 @@ public class MembershipsApiTests {
                         "Invalid 'Membership' object. The provided user doesn't belong to the provided team.");
     }
 
+    @Test
+    void shouldAssignRoleToTeamLead() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        expectedMembership.setUserId(ORDINARY_CORAL_LYNX_TEAM().getTeamLeadId());
+        mockGetTeamById(mockServer, expectedMembership.getTeamId(), ORDINARY_CORAL_LYNX_TEAM());
+
+        MembershipDto actualMembership = createMembership(expectedMembership)
+                .statusCode(201)
+                .extract().as(MembershipDto.class);
+
+        assertThat(actualMembership.getId()).isNotNull();
+        assertThat(actualMembership.getUserId()).isEqualTo(UUID_1);
+    }
+
+    @Test
+    void shouldAssignRolesInBatchAndReportEachItem() {
+        Membership valid = DEFAULT_MEMBERSHIP();
+        Membership duplicate = DEFAULT_MEMBERSHIP();
+        Membership unknownRole = DEFAULT_MEMBERSHIP();
+        unknownRole.setTeamId(UUID_2);
+        unknownRole.setRole(Role.builder().id(UUID_1).build());
+        mockGetTeamById(mockServer, valid.getTeamId(), ORDINARY_CORAL_LYNX_TEAM());
+
+        AssignmentResultDto[] results = createMemberships(of(valid, duplicate, unknownRole))
+                .statusCode(200)
+                .extract().as(AssignmentResultDto[].class);
+
+        assertThat(results).extracting(AssignmentResultDto::getStatus).containsExactly(200, 400, 404);
+        assertThat(results[0].getMembership().getId()).isNotNull();
+        assertThat(results[0].getMembership()).isEqualTo(MembershipDto.fromModel(valid));
+        assertThat(results[1].getError()).isEqualTo("Membership already exists");
+        assertThat(results[2].getError()).isEqualTo(format("Role %s not found", UUID_1));
+        assertThat(membershipRepository.count()).isEqualTo(1);
+    }
+
     @Test
     void shouldGetAllMemberships() {
         createDefaultMembership();
@@ -146,6 +289,92 @@ public class MembershipsApiTests {
         assertThat(actualMemberships[0]).isEqualTo(MembershipDto.fromModel(expectedMembership));
     }
 
+    @Test
+    void shouldPageThroughMembershipsOfRole() {
+        Membership first = DEFAULT_MEMBERSHIP();
+        Membership second = DEFAULT_MEMBERSHIP();
+        second.setTeamId(UUID_2);
+        Membership third = DEFAULT_MEMBERSHIP();
+        third.setTeamId(UUID_3);
+        mockTeamsOf(first, second, third);
+        createMemberships(of(first, second, third)).statusCode(200);
+
+        ExtractableResponse<Response> firstPage = searchMemberships(DEVELOPER_ROLE_UUID, null, 2)
+                .statusCode(200)
+                .extract();
+        String nextPageToken = firstPage.header("Next-Page-Token");
+        ExtractableResponse<Response> secondPage = searchMemberships(DEVELOPER_ROLE_UUID, nextPageToken, 2)
+                .statusCode(200)
+                .extract();
+
+        assertThat(firstPage.as(MembershipDto[].class)).hasSize(2);
+        assertThat(nextPageToken).isNotNull();
+        assertThat(secondPage.as(MembershipDto[].class)).hasSize(1);
+        assertThat(secondPage.header("Next-Page-Token")).isNull();
+        assertThat(concat(stream(firstPage.as(MembershipDto[].class)),
+                stream(secondPage.as(MembershipDto[].class))))
+                        .containsExactlyInAnyOrder(MembershipDto.fromModel(first),
+                                MembershipDto.fromModel(second),
+                                MembershipDto.fromModel(third));
+    }
+
+    @Test
+    void shouldExpandUsersAndTeamsOfMemberships() {
+        Membership membership = DEFAULT_MEMBERSHIP();
+        Membership unknownUser = DEFAULT_MEMBERSHIP();
+        unknownUser.setUserId(UUID_2);
+        mockGetTeamById(mockServer, ORDINARY_CORAL_LYNX_TEAM_UUID, ORDINARY_CORAL_LYNX_TEAM());
+        mockGetUserById(mockServer, GIANNI_USER_UUID, GIANNI_USER());
+        mockGetUserNotFound(mockServer, UUID_2);
+        createMemberships(of(membership, unknownUser)).statusCode(200);
+
+        MembershipDto[] memberships = searchMemberships(DEVELOPER_ROLE_UUID, "user,team")
+                .statusCode(200)
+                .extract().as(MembershipDto[].class);
+
+        assertThat(memberships).hasSize(2);
+        assertThat(memberships).allSatisfy(expanded -> {
+            assertThat(expanded.getTeam().getId()).isEqualTo(ORDINARY_CORAL_LYNX_TEAM_UUID);
+            assertThat(expanded.getTeam().getName()).isEqualTo(ORDINARY_CORAL_LYNX_TEAM().getName());
+            assertThat(expanded.getTeam().getTeamMemberIds()).isNull();
+        });
+        Map<UUID, MembershipDto> byUser = stream(memberships)
+                .collect(Collectors.toMap(MembershipDto::getUserId, Function.identity()));
+        assertThat(byUser.get(GIANNI_USER_UUID).getUser().getDisplayName())
+                .isEqualTo(GIANNI_USER().getDisplayName());
+        assertThat(byUser.get(GIANNI_USER_UUID).getUser().getFirstName()).isNull();
+        assertThat(byUser.get(UUID_2).getUser()).isNull();
+    }
+
+    @Test
+    void shouldFailToExpandUnknownFieldsOfMemberships() {
+        searchMemberships(DEVELOPER_ROLE_UUID, "user,role")
+                .validate(400, "Invalid 'Membership' object. Only user and team can be expanded.");
+    }
+
+    @Test
+    void shouldExportMembershipsAsNdjson() {
+        Membership first = DEFAULT_MEMBERSHIP();
+        Membership second = DEFAULT_MEMBERSHIP();
+        second.setTeamId(UUID_2);
+        second.setRole(PRODUCT_OWNER_ROLE());
+        mockTeamsOf(first, second);
+        createMemberships(of(first, second)).statusCode(200);
+
+        String all = exportMemberships(null, null)
+                .statusCode(200)
+                .extract().asString();
+        String byRole = exportMemberships(PRODUCT_OWNER_UUID, null)
+                .statusCode(200)
+                .extract().asString();
+
+        assertThat(all.lines().map(this::readMembership))
+                .containsExactlyInAnyOrder(MembershipDto.fromModel(first), MembershipDto.fromModel(second));
+        assertThat(byRole).endsWith("\n");
+        assertThat(byRole.lines().map(this::readMembership))
+                .containsExactly(MembershipDto.fromModel(second));
+    }
+
     @Test
     void shouldGetAllMembershipsButReturnsEmptyList() {
         MembershipDto[] actualMemberships = getMemberships(DEVELOPER_ROLE_UUID)
@@ -161,6 +390,23 @@ public class MembershipsApiTests {
                 .validate(400, "Bad Request");
     }
 
+    private void mockTeamsOf(Membership... memberships) {
+        for (Membership membership : memberships) {
+            mockGetTeamById(mockServer, membership.getTeamId(), Team.builder()
+                    .id(membership.getTeamId())
+                    .teamMemberIds(of(membership.getUserId()))
+                    .build());
+        }
+    }
+
+    private MembershipDto readMembership(String line) {
+        try {
+            return objectMapper.readValue(line, MembershipDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private MembershipDto createDefaultMembership() {
         Membership expectedMembership = DEFAULT_MEMBERSHIP();
         mockGetTeamById(mockServer, expectedMembership.getTeamId(), ORDINARY_CORAL_LYNX_TEAM());
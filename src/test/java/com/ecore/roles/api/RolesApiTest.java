@@ -1,10 +1,20 @@
 package com.ecore.roles.api;
 
+import com.ecore.roles.configuration.LatencyTimingAspect;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.MembershipViews;
+import com.ecore.roles.index.RoleCatalog;
+import com.ecore.roles.index.TeamRosterIndex;
 import com.ecore.roles.model.Membership;
 import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.MembershipRepository;
 import com.ecore.roles.repository.RoleRepository;
 import com.ecore.roles.utils.RestAssuredHelper;
 import com.ecore.roles.web.dto.RoleDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +30,7 @@ import static com.ecore.roles.utils.RestAssuredHelper.createMembership;
 import static com.ecore.roles.utils.RestAssuredHelper.createRole;
 import static com.ecore.roles.utils.RestAssuredHelper.getRole;
 import static com.ecore.roles.utils.RestAssuredHelper.getRoles;
+import static com.ecore.roles.utils.RestAssuredHelper.listRoles;
 import static com.ecore.roles.utils.RestAssuredHelper.sendRequest;
 import static com.ecore.roles.utils.TestData.DEFAULT_MEMBERSHIP;
 import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE;
@@ -30,16 +41,26 @@ import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
 import static com.ecore.roles.utils.TestData.PRODUCT_OWNER_ROLE;
 import static com.ecore.roles.utils.TestData.TESTER_ROLE;
 import static com.ecore.roles.utils.TestData.UUID_1;
+import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.when;
 import static java.lang.String.format;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class RolesApiTest {
 
     private final RestTemplate restTemplate;
     private final RoleRepository roleRepository;
+    private final MembershipRepository membershipRepository;
+    private final RoleCatalog roleCatalog;
+    private final MembershipIndex membershipIndex;
+    private final MembershipViews membershipViews;
+    private final TeamRosterIndex teamRosterIndex;
+    private final MeterRegistry meterRegistry;
 
     private MockRestServiceServer mockServer;
 
@@ -47,17 +68,36 @@ public class RolesApiTest {
     private int port;
 
     @Autowired
-    public RolesApiTest(RestTemplate restTemplate, RoleRepository roleRepository) {
+    public RolesApiTest(
+            RestTemplate restTemplate,
+            RoleRepository roleRepository,
+            MembershipRepository membershipRepository,
+            RoleCatalog roleCatalog,
+            MembershipIndex membershipIndex,
+            MembershipViews membershipViews,
+            TeamRosterIndex teamRosterIndex,
+            MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
         this.roleRepository = roleRepository;
+        this.membershipRepository = membershipRepository;
+        this.roleCatalog = roleCatalog;
+        this.membershipIndex = membershipIndex;
+        this.membershipViews = membershipViews;
+        this.teamRosterIndex = teamRosterIndex;
+        this.meterRegistry = meterRegistry;
     }
 
     @BeforeEach
     void setUp() {
         mockServer = MockRestServiceServer.createServer(restTemplate);
         RestAssuredHelper.setUp(port);
+        membershipRepository.deleteAll();
+        membershipIndex.reload();
+        membershipViews.reload();
+        teamRosterIndex.invalidateAll();
         Optional<Role> devOpsRole = roleRepository.findByName(DEVOPS_ROLE().getName());
         devOpsRole.ifPresent(roleRepository::delete);
+        roleCatalog.reload();
     }
 
     @Test
@@ -114,6 +154,23 @@ public class RolesApiTest {
         assertThat(roles).contains(RoleDto.fromModel(TESTER_ROLE()));
     }
 
+    @Test
+    void shouldListCreatedRoleFromPreEncodedFirstPage() {
+        RoleDto[] before = listRoles(null, null)
+                .statusCode(200)
+                .extract().as(RoleDto[].class);
+        RoleDto created = createRole(DEVOPS_ROLE())
+                .statusCode(201)
+                .extract().as(RoleDto.class);
+
+        RoleDto[] after = listRoles(null, null)
+                .statusCode(200)
+                .extract().as(RoleDto[].class);
+
+        assertThat(before).contains(RoleDto.fromModel(DEVELOPER_ROLE())).doesNotContain(created);
+        assertThat(after).hasSize(before.length + 1).contains(created);
+    }
+
     @Test
     void shouldGetRoleById() {
         Role expectedRole = DEVELOPER_ROLE();
@@ -123,6 +180,125 @@ public class RolesApiTest {
                 .body("name", equalTo(expectedRole.getName()));
     }
 
+    @Test
+    void shouldAnswerConditionalGetWithNotModified() {
+        Role expectedRole = DEVELOPER_ROLE();
+        String eTag = getRole(expectedRole.getId())
+                .statusCode(200)
+                .header("Cache-Control", equalTo("max-age=60, public"))
+                .extract().header("ETag");
+
+        given()
+                .header("If-None-Match", eTag)
+                .get("/v1/roles/{roleId}", expectedRole.getId())
+                .then()
+                .statusCode(304)
+                .header("ETag", equalTo(eTag))
+                .body(emptyString());
+    }
+
+    @Test
+    void shouldChangeRolesEntityTagWhenRoleIsCreated() {
+        String before = listRoles(null, null)
+                .statusCode(200)
+                .extract().header("ETag");
+        createRole(DEVOPS_ROLE())
+                .statusCode(201);
+
+        given()
+                .header("If-None-Match", before)
+                .get("/v1/roles")
+                .then()
+                .statusCode(200)
+                .header("ETag", not(equalTo(before)));
+    }
+
+    @Test
+    void shouldNegotiateBinaryFormats() throws Exception {
+        Role expectedRole = DEVELOPER_ROLE();
+
+        byte[] cbor = given()
+                .accept("application/cbor")
+                .get("/v1/roles/{roleId}", expectedRole.getId())
+                .then()
+                .statusCode(200)
+                .contentType("application/cbor")
+                .extract().asByteArray();
+        byte[] smile = given()
+                .accept("application/x-jackson-smile")
+                .get("/v1/roles")
+                .then()
+                .statusCode(200)
+                .contentType("application/x-jackson-smile")
+                .extract().asByteArray();
+
+        assertThat(new ObjectMapper(new CBORFactory()).readValue(cbor, RoleDto.class))
+                .isEqualTo(RoleDto.fromModel(expectedRole));
+        assertThat(new ObjectMapper(new SmileFactory()).readValue(smile, RoleDto[].class))
+                .contains(RoleDto.fromModel(expectedRole));
+        getRole(expectedRole.getId())
+                .statusCode(200)
+                .contentType("application/json");
+    }
+
+    @Test
+    void shouldTagEachFormatAndVaryOnAccept() {
+        Role expectedRole = DEVELOPER_ROLE();
+        String json = getRole(expectedRole.getId())
+                .statusCode(200)
+                .header("Vary", containsString("Accept"))
+                .extract().header("ETag");
+        String cbor = given()
+                .accept("application/cbor")
+                .get("/v1/roles")
+                .then()
+                .statusCode(200)
+                .header("Vary", containsString("Accept"))
+                .extract().header("ETag");
+        String firstPageJson = listRoles(null, null)
+                .statusCode(200)
+                .extract().header("ETag");
+
+        assertThat(cbor).isNotEqualTo(firstPageJson);
+        given()
+                .accept("application/cbor")
+                .header("If-None-Match", json)
+                .get("/v1/roles/{roleId}", expectedRole.getId())
+                .then()
+                .statusCode(200)
+                .contentType("application/cbor");
+        given()
+                .accept("application/cbor")
+                .header("If-None-Match", cbor)
+                .get("/v1/roles")
+                .then()
+                .statusCode(304)
+                .header("Vary", containsString("Accept"));
+    }
+
+    @Test
+    void shouldTimeEachLayerOfARequest() {
+        createRole(DEVOPS_ROLE())
+                .statusCode(201);
+        getRole(UUID_1)
+                .statusCode(404);
+
+        assertThat(meterRegistry.get(LatencyTimingAspect.CONTROLLER_TIMER)
+                .tags("class", "RolesRestController", "method", "createRole", "status", "201")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get(LatencyTimingAspect.CONTROLLER_TIMER)
+                .tags("method", "getRole", "outcome", "CLIENT_ERROR", "status", "404")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get(LatencyTimingAspect.SERVICE_TIMER)
+                .tags("class", "RolesServiceImpl", "method", "GetRole", "exception",
+                        "ResourceNotFoundException")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get(LatencyTimingAspect.REPOSITORY_TIMER)
+                .tags("repository", "RoleRepository", "method", "save", "outcome", "SUCCESS")
+                .timer().count()).isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.find("hikaricp.connections.active").gauge()).isNotNull();
+    }
+
     @Test
     void shouldFailToGetRoleById() {
         getRole(UUID_1)
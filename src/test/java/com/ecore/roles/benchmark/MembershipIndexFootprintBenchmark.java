@@ -0,0 +1,103 @@
+package com.ecore.roles.benchmark;
+
+import com.ecore.roles.index.MembershipTable;
+import com.ecore.roles.model.MembershipKey;
+import com.ecore.roles.model.Role;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Heap retained by the membership index for {@code -Dbenchmark.memberships} memberships (1 and 10
+ * million by default), laid out as a {@link MembershipTable} and as the {@code ConcurrentHashMap}
+ * keyed by {@link MembershipKey} it replaces. The retained heap is the difference of the used heap
+ * after a full collection, with and without the index.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=MembershipIndexFootprintBenchmark -DargLine=-Xmx3g}.
+ */
+@Tag("benchmark")
+class MembershipIndexFootprintBenchmark {
+
+    private static final String MEMBERSHIPS = System.getProperty("benchmark.memberships", "1000000,10000000");
+    private static final int ROLES = 50;
+
+    @Test
+    void compareFootprints() throws InterruptedException {
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < ROLES; i++) {
+            roles.add(Role.builder().id(UUID.randomUUID()).name("Role " + i).build());
+        }
+
+        System.out.printf("%n%-12s %-8s %12s %16s %12s %14s%n", "memberships", "index", "retained MB",
+                "bytes/membership", "build ms", "estimated MB");
+        for (String memberships : MEMBERSHIPS.split(",")) {
+            int size = Integer.parseInt(memberships.trim());
+            measureBoxed(size, roles);
+            measureCompact(size, roles);
+        }
+    }
+
+    private static void measureBoxed(int size, List<Role> roles) throws InterruptedException {
+        long before = usedHeap();
+        long started = System.nanoTime();
+        Map<MembershipKey, Role> index = new ConcurrentHashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            index.put(new MembershipKey(randomUuid(random), randomUuid(random)), randomRole(random, roles));
+        }
+        long buildNanos = System.nanoTime() - started;
+        print(size, "boxed", usedHeap() - before, buildNanos, -1);
+        if (index.size() != size) {
+            throw new IllegalStateException("Lost memberships");
+        }
+    }
+
+    private static void measureCompact(int size, List<Role> roles) throws InterruptedException {
+        long before = usedHeap();
+        long started = System.nanoTime();
+        MembershipTable index = new MembershipTable(size);
+        Random random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            index.put(randomUuid(random), randomUuid(random), randomRole(random, roles));
+        }
+        long buildNanos = System.nanoTime() - started;
+        print(size, "compact", usedHeap() - before, buildNanos, index.footprintBytes());
+        if (index.size() != size) {
+            throw new IllegalStateException("Lost memberships");
+        }
+    }
+
+    private static void print(
+            int size,
+            String index,
+            long retainedBytes,
+            long buildNanos,
+            long estimatedBytes) {
+        System.out.printf("%-12d %-8s %12.1f %16.1f %12d %14s%n", size, index, retainedBytes / 1e6,
+                (double) retainedBytes / size, buildNanos / 1_000_000,
+                estimatedBytes < 0 ? "" : String.format("%.1f", estimatedBytes / 1e6));
+    }
+
+    private static UUID randomUuid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong());
+    }
+
+    private static Role randomRole(Random random, List<Role> roles) {
+        return roles.get(random.nextInt(roles.size()));
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
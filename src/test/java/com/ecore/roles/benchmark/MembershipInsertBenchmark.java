@@ -0,0 +1,139 @@
+package com.ecore.roles.benchmark;
+
+import com.ecore.roles.exception.ResourceExistsException;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.MembershipRepository;
+import com.ecore.roles.repository.RoleRepository;
+import com.ecore.roles.service.MembershipsService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE_UUID;
+
+/**
+ * Inserts {@code -Dbenchmark.inserts} memberships (50 000 by default) from
+ * {@code -Dbenchmark.writers} threads (32 by default), once with the former check-then-insert path
+ * (select by user and team, select the role, insert) and once through
+ * {@link MembershipsService#assignRoleToMembership}. One insert in ten repeats an earlier (user,
+ * team) pair, so both paths also go through their duplicate handling.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=MembershipInsertBenchmark}.
+ */
+@Tag("benchmark")
+@SpringBootTest
+class MembershipInsertBenchmark {
+
+    private static final int INSERTS = Integer.getInteger("benchmark.inserts", 50_000);
+    private static final int WRITERS = Integer.getInteger("benchmark.writers", 32);
+
+    @Autowired
+    private MembershipsService membershipsService;
+
+    @Autowired
+    private MembershipRepository membershipRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private MembershipIndex membershipIndex;
+
+    @Test
+    void compareInsertPaths() throws Exception {
+        Result checkThenInsert = run(this::checkThenInsert);
+        Result singleStatement = run(membershipsService::assignRoleToMembership);
+
+        System.out.printf("%n%d inserts from %d writers%n", INSERTS, WRITERS);
+        System.out.printf("%-22s %12s %12s %12s%n", "", "ops/s", "duplicates", "errors");
+        checkThenInsert.print("check-then-insert");
+        singleStatement.print("single statement");
+    }
+
+    private Membership checkThenInsert(Membership m) {
+        if (membershipRepository.findByUserIdAndTeamId(m.getUserId(), m.getTeamId()).isPresent()) {
+            throw new ResourceExistsException(Membership.class);
+        }
+        Role role = roleRepository.findById(m.getRole().getId()).orElseThrow();
+        m.setRole(role);
+        return membershipRepository.save(m);
+    }
+
+    private Result run(Writer writer) throws Exception {
+        membershipRepository.deleteAllInBatch();
+        membershipIndex.reload();
+        Result result = new Result();
+        AtomicInteger next = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = next.getAndIncrement(); n < INSERTS; n = next.getAndIncrement()) {
+                        insert(writer, n, result);
+                    }
+                    return null;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            result.seconds = (System.nanoTime() - begin) / 1e9;
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
+    private static void insert(Writer writer, int n, Result result) {
+        int key = n % 10 == 9 ? n - 9 : n;
+        try {
+            writer.insert(Membership.builder()
+                    .role(Role.builder().id(DEVELOPER_ROLE_UUID).build())
+                    .userId(new UUID(0xfd282131_d8aa_4819L, key))
+                    .teamId(new UUID(0x7676a4bf_adfe_415cL, key / 20))
+                    .build());
+        } catch (ResourceExistsException e) {
+            result.duplicates.incrementAndGet();
+        } catch (DataIntegrityViolationException e) {
+            result.errors.incrementAndGet();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+
+        Membership insert(Membership membership);
+
+    }
+
+    private static class Result {
+
+        private final AtomicInteger duplicates = new AtomicInteger();
+        private final AtomicInteger errors = new AtomicInteger();
+        private double seconds;
+
+        private void print(String name) {
+            System.out.printf("%-22s %12.0f %12d %12d%n", name, INSERTS / seconds, duplicates.get(),
+                    errors.get());
+        }
+
+    }
+}
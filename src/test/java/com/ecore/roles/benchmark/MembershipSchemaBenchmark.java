@@ -0,0 +1,199 @@
+package com.ecore.roles.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Random;
+import java.util.UUID;
+
+import static java.lang.String.format;
+
+/**
+ * Compares the membership table as laid out by {@code V1__init.sql} with the layout after
+ * {@code V2__compact_uuids_and_indexes.sql}, on a file backed H2 database filled with
+ * {@code -Dbenchmark.rows} memberships (2 million by default).
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=MembershipSchemaBenchmark}.
+ */
+@Tag("benchmark")
+class MembershipSchemaBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+    private static final int MEMBERS_PER_TEAM = 20;
+    private static final int LOOKUPS = 20_000;
+    private static final long BUDGET_NANOS = 10_000_000_000L;
+    private static final UUID DEVELOPER_ROLE_UUID = UUID.fromString("1b3c333b-36e7-4b64-aa15-c22ed5908ce4");
+    private static final UUID TESTER_ROLE_UUID = UUID.fromString("37969e22-26f3-11ec-9621-0242ac130002");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareSchemas() throws SQLException {
+        Result before = run("1", false);
+        Result after = run("2", true);
+
+        System.out.printf("%n%d memberships%n", ROWS);
+        System.out.printf("%-34s %14s %14s%n", "", "V1", "V2");
+        System.out.printf("%-34s %11.1f MB %11.1f MB%n", "database file", before.fileMb, after.fileMb);
+        System.out.printf("%-34s %11.2f us %11.2f us%n", "lookup by (user_id, team_id)",
+                before.byUserAndTeamUs,
+                after.byUserAndTeamUs);
+        System.out.printf("%-34s %11.2f us %11.2f us%n", "lookup by team_id", before.byTeamUs,
+                after.byTeamUs);
+        System.out.printf("%-34s %11.2f ms %11.2f ms%n", "count by role_id (rare role)", before.byRoleMs,
+                after.byRoleMs);
+    }
+
+    private Result run(String version, boolean binaryIds) throws SQLException {
+        Path file = directory.resolve("v" + version);
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:file:" + file + ";QUERY_CACHE_SIZE=0");
+        Flyway.configure().dataSource(dataSource).target(version).load().migrate();
+
+        Result result = new Result();
+        try (Connection connection = dataSource.getConnection()) {
+            load(connection, binaryIds);
+            result.byUserAndTeamUs = time(connection,
+                    "select id, role_id from membership where user_id = ? and team_id = ?", LOOKUPS,
+                    (statement, random) -> {
+                        int team = random.nextInt(ROWS / MEMBERS_PER_TEAM);
+                        statement.setBytes(1, bytes(userId(team, random.nextInt(MEMBERS_PER_TEAM))));
+                        statement.setBytes(2, bytes(teamId(team)));
+                    }) / 1_000d;
+            result.byTeamUs = time(connection,
+                    "select id, user_id, role_id from membership where team_id = ?", LOOKUPS / 100,
+                    (statement, random) -> statement.setBytes(1,
+                            bytes(teamId(random.nextInt(ROWS / MEMBERS_PER_TEAM)))))
+                    / 1_000d;
+            result.byRoleMs = time(connection, "select count(*) from membership where role_id = ?", 20,
+                    (statement, random) -> setId(statement, 1, TESTER_ROLE_UUID, binaryIds)) / 1_000_000d;
+            try (PreparedStatement statement = connection.prepareStatement("checkpoint sync")) {
+                statement.execute();
+            }
+        }
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement("shutdown compact")) {
+            statement.execute();
+        }
+        result.fileMb = fileSize(file) / (1024d * 1024d);
+        return result;
+    }
+
+    private static void load(Connection connection, boolean binaryIds) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "insert into membership(id, user_id, team_id, role_id) values (?, ?, ?, ?)")) {
+            for (int i = 0; i < ROWS; i++) {
+                int team = i / MEMBERS_PER_TEAM;
+                setId(statement, 1, UUID.randomUUID(), binaryIds);
+                statement.setBytes(2, bytes(userId(team, i % MEMBERS_PER_TEAM)));
+                statement.setBytes(3, bytes(teamId(team)));
+                setId(statement, 4, i % 100 == 0 ? TESTER_ROLE_UUID : DEVELOPER_ROLE_UUID, binaryIds);
+                statement.addBatch();
+                if (i % 10_000 == 9_999) {
+                    statement.executeBatch();
+                    connection.commit();
+                }
+            }
+            statement.executeBatch();
+            connection.commit();
+        }
+        connection.setAutoCommit(true);
+    }
+
+    /**
+     * Returns the mean nanoseconds per query over at most {@code iterations} queries, after as many
+     * warm-up queries. Each phase stops early once it has run for {@link #BUDGET_NANOS}, so full table
+     * scans on the old layout still finish in reasonable time.
+     */
+    private static long time(Connection connection, String sql, int iterations, Binder binder)
+            throws SQLException {
+        Random random = new Random(42);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            run(statement, random, binder, iterations);
+            long start = System.nanoTime();
+            int executed = run(statement, random, binder, iterations);
+            return (System.nanoTime() - start) / executed;
+        }
+    }
+
+    private static int run(PreparedStatement statement, Random random, Binder binder, int iterations)
+            throws SQLException {
+        long deadline = System.nanoTime() + BUDGET_NANOS;
+        int executed = 0;
+        while (executed < iterations && (executed == 0 || System.nanoTime() < deadline)) {
+            execute(statement, random, binder);
+            executed++;
+        }
+        return executed;
+    }
+
+    private static void execute(PreparedStatement statement, Random random, Binder binder)
+            throws SQLException {
+        binder.bind(statement, random);
+        try (ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getObject(1);
+            }
+        }
+    }
+
+    private static void setId(PreparedStatement statement, int index, UUID id, boolean binary)
+            throws SQLException {
+        if (binary) {
+            statement.setBytes(index, bytes(id));
+        } else {
+            statement.setString(index, id.toString());
+        }
+    }
+
+    private static UUID teamId(int team) {
+        return new UUID(0x7676a4bf_adfe_415cL, team);
+    }
+
+    private static UUID userId(int team, int member) {
+        return new UUID(0xfd282131_d8aa_4819L, (long) team * MEMBERS_PER_TEAM + member);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private static long fileSize(Path file) {
+        try {
+            return Files.size(Path.of(file + ".mv.db"));
+        } catch (Exception e) {
+            throw new IllegalStateException(format("Cannot read the size of %s", file), e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Binder {
+
+        void bind(PreparedStatement statement, Random random) throws SQLException;
+
+    }
+
+    private static class Result {
+
+        private double fileMb;
+        private double byUserAndTeamUs;
+        private double byTeamUs;
+        private double byRoleMs;
+
+    }
+}
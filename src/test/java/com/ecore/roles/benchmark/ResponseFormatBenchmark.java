@@ -0,0 +1,155 @@
+package com.ecore.roles.benchmark;
+
+import com.ecore.roles.web.dto.MembershipDto;
+import com.ecore.roles.web.dto.UserDto;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares JSON, CBOR and Smile on the response bodies polled the most: a page of
+ * {@code -Dbenchmark.rows} memberships (1000 by default) and a user listing of the same size.
+ * Reports the payload size, raw and gzipped, and the time to serialize and deserialize it.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=ResponseFormatBenchmark}.
+ */
+@Tag("benchmark")
+class ResponseFormatBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000);
+    private static final long WARM_UP_NANOS = 3_000_000_000L;
+    private static final long BUDGET_NANOS = 5_000_000_000L;
+
+    private static final String[] FIRST_NAMES = {"Gianni", "Ada", "Grace", "Linus", "Barbara", "Ken"};
+    private static final String[] LAST_NAMES = {"Wehner", "Lovelace", "Hopper", "Torvalds", "Liskov"};
+    private static final String[] LOCATIONS = {"Brakusstad", "Lisbon", "Tallinn", "Porto", "Berlin"};
+
+    @Test
+    void compareFormats() throws IOException {
+        Random random = new Random(42);
+        List<MembershipDto> memberships = memberships(random);
+        List<UserDto> users = users(random);
+
+        System.out.printf("%n%d items per response%n", ROWS);
+        System.out.printf("%-12s %-7s %10s %10s %12s %12s%n", "", "", "bytes", "gzipped", "encode us",
+                "decode us");
+        for (Format format : formats()) {
+            print("memberships", format, memberships, MembershipDto.class);
+        }
+        for (Format format : formats()) {
+            print("users", format, users, UserDto.class);
+        }
+    }
+
+    private static <T> void print(String body, Format format, List<T> items, Class<T> type)
+            throws IOException {
+        JavaType listType = format.mapper.getTypeFactory().constructCollectionType(List.class, type);
+        byte[] encoded = format.mapper.writeValueAsBytes(items);
+        double encodeUs = time(() -> format.mapper.writeValueAsBytes(items)) / 1_000d;
+        double decodeUs = time(() -> format.mapper.readValue(encoded, listType)) / 1_000d;
+        System.out.printf("%-12s %-7s %10d %10d %12.1f %12.1f%n", body, format.name, encoded.length,
+                gzip(encoded).length, encodeUs, decodeUs);
+    }
+
+    /**
+     * Returns the mean nanoseconds per call, measured after a warm-up so the JIT has compiled the
+     * serializers.
+     */
+    private static double time(Task task) throws IOException {
+        long warmUpEnd = System.nanoTime() + WARM_UP_NANOS;
+        while (System.nanoTime() < warmUpEnd) {
+            task.run();
+        }
+        int calls = 0;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            task.run();
+            calls++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < BUDGET_NANOS);
+        return (double) elapsed / calls;
+    }
+
+    private static List<Format> formats() {
+        return List.of(
+                new Format("json", new ObjectMapper()),
+                new Format("cbor", new ObjectMapper(new CBORFactory())),
+                new Format("smile", new ObjectMapper(new SmileFactory())));
+    }
+
+    /**
+     * Memberships of a handful of roles, spread over teams of about 20 members, as a search by role
+     * returns them.
+     */
+    private static List<MembershipDto> memberships(Random random) {
+        List<UUID> roles = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        List<MembershipDto> memberships = new ArrayList<>(ROWS);
+        UUID team = UUID.randomUUID();
+        for (int i = 0; i < ROWS; i++) {
+            if (i % 20 == 0) {
+                team = UUID.randomUUID();
+            }
+            memberships.add(MembershipDto.builder()
+                    .id(UUID.randomUUID())
+                    .roleId(roles.get(random.nextInt(roles.size())))
+                    .userId(UUID.randomUUID())
+                    .teamId(team)
+                    .build());
+        }
+        return memberships;
+    }
+
+    private static List<UserDto> users(Random random) {
+        List<UserDto> users = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+            users.add(UserDto.builder()
+                    .id(UUID.randomUUID())
+                    .firstName(firstName)
+                    .lastName(lastName)
+                    .displayName(firstName.toLowerCase() + lastName.toLowerCase() + i)
+                    .avatarUrl("https://cdn.fakercloud.com/avatars/" + firstName.toLowerCase() + i + ".jpg")
+                    .location(LOCATIONS[random.nextInt(LOCATIONS.length)])
+                    .build());
+        }
+        return users;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    @FunctionalInterface
+    private interface Task {
+
+        void run() throws IOException;
+    }
+
+    private static final class Format {
+
+        private final String name;
+        private final ObjectMapper mapper;
+
+        private Format(String name, ObjectMapper mapper) {
+            this.name = name;
+            this.mapper = mapper;
+        }
+    }
+}
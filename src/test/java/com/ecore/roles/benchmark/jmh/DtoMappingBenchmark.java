@@ -0,0 +1,55 @@
+package com.ecore.roles.benchmark.jmh;
+
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.web.dto.MembershipDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of mapping a membership between its entity and its DTO, paid once per item of every
+ * membership response and request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private Membership membership;
+    private MembershipDto membershipDto;
+
+    @Setup
+    public void setUp() {
+        membership = Membership.builder()
+                .id(UUID.randomUUID())
+                .role(Role.builder().id(UUID.randomUUID()).name("Developer").build())
+                .userId(UUID.randomUUID())
+                .teamId(UUID.randomUUID())
+                .build();
+        membershipDto = MembershipDto.fromModel(membership);
+    }
+
+    @Benchmark
+    public MembershipDto fromModel() {
+        return MembershipDto.fromModel(membership);
+    }
+
+    @Benchmark
+    public Membership toModel() {
+        return membershipDto.toModel();
+    }
+}
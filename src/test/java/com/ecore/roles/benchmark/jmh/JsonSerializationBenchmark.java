@@ -0,0 +1,71 @@
+package com.ecore.roles.benchmark.jmh;
+
+import com.ecore.roles.web.dto.MembershipDto;
+import com.ecore.roles.web.dto.RoleDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of role and membership listings, with an object mapper configured like the one the
+ * application gets from Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<RoleDto> roles;
+    private List<MembershipDto> memberships;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writer();
+        roles = new ArrayList<>(size);
+        memberships = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            roles.add(RoleDto.builder().id(UUID.randomUUID()).name("Role " + i).build());
+            memberships.add(MembershipDto.builder()
+                    .id(UUID.randomUUID())
+                    .roleId(UUID.randomUUID())
+                    .userId(UUID.randomUUID())
+                    .teamId(UUID.randomUUID())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public byte[] roles() throws JsonProcessingException {
+        return writer.writeValueAsBytes(roles);
+    }
+
+    @Benchmark
+    public byte[] memberships() throws JsonProcessingException {
+        return writer.writeValueAsBytes(memberships);
+    }
+}
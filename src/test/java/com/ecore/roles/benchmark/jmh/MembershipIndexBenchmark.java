@@ -0,0 +1,131 @@
+package com.ecore.roles.benchmark.jmh;
+
+import com.ecore.roles.index.MembershipTable;
+import com.ecore.roles.model.MembershipKey;
+import com.ecore.roles.model.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups by (user, team) and iteration by role over {@code memberships} memberships, in a
+ * {@link MembershipTable} ({@code compact}) and in the {@code ConcurrentHashMap} keyed by
+ * {@link MembershipKey} it replaces ({@code boxed}). Lookups cycle through pairs picked at random,
+ * so most of them miss the CPU caches as they would with real traffic. Run with {@code -prof gc} to
+ * see the allocation per lookup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class MembershipIndexBenchmark {
+
+    private static final int ROLES = 50;
+    private static final int PROBES = 1 << 16;
+
+    @Param({"1000000", "10000000"})
+    private int memberships;
+
+    @Param({"compact", "boxed"})
+    private String index;
+
+    private MembershipTable table;
+    private Map<MembershipKey, Role> map;
+    private UUID rareRoleId;
+    private final UUID[] hitUsers = new UUID[PROBES];
+    private final UUID[] hitTeams = new UUID[PROBES];
+    private final UUID[] missUsers = new UUID[PROBES];
+    private final UUID[] missTeams = new UUID[PROBES];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        List<Role> roles = new ArrayList<>();
+        for (int i = 0; i < ROLES; i++) {
+            roles.add(Role.builder().id(UUID.randomUUID()).name("Role " + i).build());
+        }
+        rareRoleId = roles.get(ROLES - 1).getId();
+        Random random = new Random(42);
+        if (index.equals("compact")) {
+            table = new MembershipTable(memberships);
+        } else {
+            map = new ConcurrentHashMap<>();
+        }
+        int probeEvery = Math.max(1, memberships / PROBES);
+        for (int i = 0; i < memberships; i++) {
+            UUID userId = new UUID(random.nextLong(), random.nextLong());
+            UUID teamId = new UUID(random.nextLong(), random.nextLong());
+            Role role = roles.get(random.nextInt(ROLES));
+            if (table != null) {
+                table.put(userId, teamId, role);
+            } else {
+                map.put(new MembershipKey(userId, teamId), role);
+            }
+            int probe = i / probeEvery;
+            if (i % probeEvery == 0 && probe < PROBES) {
+                hitUsers[probe] = userId;
+                hitTeams[probe] = teamId;
+            }
+        }
+        for (int i = 0; i < PROBES; i++) {
+            // copies, so that a hit compares ids rather than references
+            hitUsers[i] =
+                    new UUID(hitUsers[i].getMostSignificantBits(), hitUsers[i].getLeastSignificantBits());
+            hitTeams[i] =
+                    new UUID(hitTeams[i].getMostSignificantBits(), hitTeams[i].getLeastSignificantBits());
+            missUsers[i] = new UUID(random.nextLong(), random.nextLong());
+            missTeams[i] = hitTeams[i];
+        }
+    }
+
+    @Benchmark
+    public Role hit() {
+        int probe = next++ & (PROBES - 1);
+        return find(hitUsers[probe], hitTeams[probe]);
+    }
+
+    @Benchmark
+    public Role miss() {
+        int probe = next++ & (PROBES - 1);
+        return find(missUsers[probe], missTeams[probe]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public long iterateRole() {
+        if (table != null) {
+            long[] checksum = {0};
+            table.forEachOfRole(rareRoleId, (userMsb, userLsb, teamMsb, teamLsb) -> checksum[0] += userLsb);
+            return checksum[0];
+        }
+        long checksum = 0;
+        for (Map.Entry<MembershipKey, Role> entry : map.entrySet()) {
+            if (entry.getValue().getId().equals(rareRoleId)) {
+                checksum += entry.getKey().getUserId().getLeastSignificantBits();
+            }
+        }
+        return checksum;
+    }
+
+    private Role find(UUID userId, UUID teamId) {
+        return table != null ? table.find(userId, teamId) : map.get(new MembershipKey(userId, teamId));
+    }
+}
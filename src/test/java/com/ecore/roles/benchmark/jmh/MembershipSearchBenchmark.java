@@ -0,0 +1,134 @@
+package com.ecore.roles.benchmark.jmh;
+
+import com.ecore.roles.RolesApplication;
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.MembershipRepository;
+import com.ecore.roles.repository.RoleRepository;
+import com.ecore.roles.web.dto.MembershipDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A page of the most assigned role's memberships read from the embedded H2 database, preloaded with
+ * {@code rows} memberships over two roles, the way the membership search used to read it
+ * ({@code entities}: the entities with their role, in a read-write transaction, then copied into
+ * DTOs) and the way it does now ({@code projection}: the id columns straight into
+ * {@code MembershipIds}, in a read-only transaction, then copied into DTOs). The membership views
+ * are off so that both go to the database. Run with {@code -prof gc} to see the allocation per
+ * page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MembershipSearchBenchmark {
+
+    private static final String ENTITY_QUERY = "select m from Membership m join fetch m.role r"
+            + " where r.id = :roleId order by r.id, m.id";
+
+    @Param({"100000"})
+    private int rows;
+
+    @Param({"100", "1000"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private MembershipRepository membershipRepository;
+    private EntityManager entityManager;
+    private TransactionTemplate readWriteTransaction;
+    private TransactionTemplate readOnlyTransaction;
+    private UUID roleId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RolesApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh-search-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "memberships.views.enabled=false",
+                        "memberships.validation.enabled=false",
+                        "clients.users-api-host=http://localhost:1/users",
+                        "clients.teams-api-host=http://localhost:1/teams")
+                .run();
+        membershipRepository = context.getBean(MembershipRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.getBean(PlatformTransactionManager.class);
+        readWriteTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        List<Role> roles = context.getBean(RoleRepository.class).findAll();
+        roleId = roles.get(0).getId();
+        load(roles.subList(0, 2));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MembershipDto> entities() {
+        return readWriteTransaction.execute(status -> entityManager
+                .createQuery(ENTITY_QUERY, Membership.class)
+                .setParameter("roleId", roleId)
+                .setMaxResults(pageSize + 1)
+                .getResultList()
+                .stream()
+                .map(MembershipDto::fromModel)
+                .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<MembershipDto> projection() {
+        return readOnlyTransaction.execute(status -> membershipRepository
+                .findIdsByRoleId(roleId, PageRequest.of(0, pageSize + 1, Sort.by("role.id", "id"))))
+                .stream()
+                .map(MembershipDto::fromModel)
+                .collect(Collectors.toList());
+    }
+
+    private void load(List<Role> roles) {
+        List<Membership> chunk = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            chunk.add(Membership.builder()
+                    .role(roles.get(i % roles.size()))
+                    .userId(UUID.randomUUID())
+                    .teamId(UUID.randomUUID())
+                    .build());
+            if (chunk.size() == 1000) {
+                membershipRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        membershipRepository.saveAll(chunk);
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecore.roles.benchmark.jmh;
+
+import com.ecore.roles.RolesApplication;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.model.KeysetPage;
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.MembershipRepository;
+import com.ecore.roles.repository.RoleRepository;
+import com.ecore.roles.service.MembershipsService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MembershipsService#assignRoleToMembership} and {@link MembershipsService#getMemberships}
+ * against the embedded H2 database preloaded with {@code rows} memberships, spread over the roles
+ * created by the migrations. Team roster validation is off so that no upstream API is called.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MembershipsServiceBenchmark {
+
+    private static final int MEMBERS_PER_TEAM = 20;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private MembershipsService membershipsService;
+    private List<Role> roles;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(RolesApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:jmh-" + rows + ";DB_CLOSE_DELAY=-1",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "memberships.validation.enabled=false",
+                        "clients.users-api-host=http://localhost:1/users",
+                        "clients.teams-api-host=http://localhost:1/teams")
+                .run();
+        membershipsService = context.getBean(MembershipsService.class);
+        roles = context.getBean(RoleRepository.class).findAll();
+        load(context.getBean(MembershipRepository.class));
+        context.getBean(MembershipIndex.class).reload();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Membership assignRoleToMembership() {
+        return membershipsService.assignRoleToMembership(Membership.builder()
+                .role(Role.builder().id(roles.get(0).getId()).build())
+                .userId(UUID.randomUUID())
+                .teamId(UUID.randomUUID())
+                .build());
+    }
+
+    @Benchmark
+    public KeysetPage<MembershipIds> getMemberships() {
+        return membershipsService.getMemberships(roles.get(1).getId(), null, PAGE_SIZE);
+    }
+
+    private void load(MembershipRepository membershipRepository) {
+        List<Membership> chunk = new ArrayList<>();
+        UUID team = UUID.randomUUID();
+        for (int i = 0; i < rows; i++) {
+            if (i % MEMBERS_PER_TEAM == 0) {
+                team = UUID.randomUUID();
+            }
+            chunk.add(Membership.builder()
+                    .role(roles.get(i % roles.size()))
+                    .userId(UUID.randomUUID())
+                    .teamId(team)
+                    .build());
+            if (chunk.size() == 1000) {
+                membershipRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        membershipRepository.saveAll(chunk);
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecore.roles.benchmark.jmh;
+
+import com.ecore.roles.client.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading a Users API listing the way the {@code RestTemplate} clients do, through the Jackson
+ * message converter, for listings of several sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UsersDeserializationBenchmark {
+
+    private static final Type USERS = new ParameterizedTypeReference<List<User>>() {}.getType();
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private MappingJackson2HttpMessageConverter converter;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        converter = new MappingJackson2HttpMessageConverter(objectMapper);
+        List<User> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(User.builder()
+                    .id(UUID.randomUUID())
+                    .firstName("Gianni")
+                    .lastName("Wehner")
+                    .displayName("gianniWehner" + i)
+                    .avatarUrl("https://cdn.fakercloud.com/avatars/rude_" + i + ".jpg")
+                    .location("Brakusstad")
+                    .build());
+        }
+        payload = objectMapper.writeValueAsBytes(users);
+    }
+
+    @Benchmark
+    public Object users() throws IOException {
+        MockHttpInputMessage message = new MockHttpInputMessage(payload);
+        message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return converter.read(USERS, null, message);
+    }
+}
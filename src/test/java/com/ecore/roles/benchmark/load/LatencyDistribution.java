@@ -0,0 +1,76 @@
+package com.ecore.roles.benchmark.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.util.Random;
+
+/**
+ * Response time of a stub upstream API, parsed from one of
+ * <ul>
+ * <li>{@code none}</li>
+ * <li>{@code fixed:20ms}</li>
+ * <li>{@code uniform:5ms:50ms}</li>
+ * <li>{@code lognormal:20ms:0.5}, a median and a shape: the larger the shape, the longer the tail.
+ * Real APIs mostly look like this one.</li>
+ * </ul>
+ */
+final class LatencyDistribution {
+
+    private final String spec;
+    private final Sampler sampler;
+
+    private LatencyDistribution(String spec, Sampler sampler) {
+        this.spec = spec;
+        this.sampler = sampler;
+    }
+
+    static LatencyDistribution parse(String spec) {
+        String[] parts = spec.trim().split(":");
+        switch (parts[0]) {
+            case "none":
+                return new LatencyDistribution(spec, random -> 0);
+            case "fixed":
+                long fixed = nanos(parts, 1);
+                return new LatencyDistribution(spec, random -> fixed);
+            case "uniform":
+                long min = nanos(parts, 1);
+                long max = nanos(parts, 2);
+                return new LatencyDistribution(spec,
+                        random -> min + (long) (random.nextDouble() * (max - min)));
+            case "lognormal":
+                double median = nanos(parts, 1);
+                double shape = Double.parseDouble(argument(parts, 2));
+                return new LatencyDistribution(spec,
+                        random -> (long) (median * Math.exp(shape * random.nextGaussian())));
+            default:
+                throw new IllegalArgumentException("Unknown latency distribution " + spec);
+        }
+    }
+
+    long sampleNanos(Random random) {
+        return sampler.sampleNanos(random);
+    }
+
+    @Override
+    public String toString() {
+        return spec;
+    }
+
+    private static long nanos(String[] parts, int index) {
+        return DurationStyle.detectAndParse(argument(parts, index)).toNanos();
+    }
+
+    private static String argument(String[] parts, int index) {
+        if (parts.length <= index) {
+            throw new IllegalArgumentException(
+                    "Missing argument " + index + " of " + String.join(":", parts));
+        }
+        return parts[index];
+    }
+
+    @FunctionalInterface
+    private interface Sampler {
+
+        long sampleNanos(Random random);
+    }
+}
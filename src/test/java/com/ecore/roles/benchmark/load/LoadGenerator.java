@@ -0,0 +1,120 @@
+package com.ecore.roles.benchmark.load;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends a {@link Workload} to the service following one of two models:
+ * <ul>
+ * <li>closed: a fixed number of workers, each sending its next request once the previous one was
+ * answered. Throughput is whatever the service sustains; latency is measured per request.</li>
+ * <li>open: requests arrive at a fixed rate whatever the service does, as users do. Latency is
+ * measured from when a request was due rather than from when it could be sent, so a stalled service
+ * shows in the percentiles instead of silently slowing the load down.</li>
+ * </ul>
+ * Requests sent during the warm-up are answered but not recorded.
+ */
+final class LoadGenerator {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final Workload workload;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    LoadGenerator(Workload workload) {
+        this.workload = workload;
+    }
+
+    LoadResult closed(int concurrency, Duration warmUp, Duration duration) throws InterruptedException {
+        LoadResult warmUpResult = new LoadResult(workload.operationNames());
+        LoadResult result = new LoadResult(workload.operationNames());
+        long measureFrom = System.nanoTime() + warmUp.toNanos();
+        long end = measureFrom + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                Random random = ThreadLocalRandom.current();
+                long sent;
+                while ((sent = System.nanoTime()) < end) {
+                    Workload.Operation operation = workload.next(random);
+                    int status;
+                    try {
+                        status = httpClient
+                                .send(operation.request(random), HttpResponse.BodyHandlers.discarding())
+                                .statusCode();
+                    } catch (IOException e) {
+                        status = LoadResult.FAILED;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    (sent < measureFrom ? warmUpResult : result)
+                            .record(operation.name(), System.nanoTime() - sent, status);
+                }
+            });
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(warmUp.plus(duration).plus(DRAIN_TIMEOUT).toNanos(),
+                TimeUnit.NANOSECONDS)) {
+            workers.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Sends {@code rate} requests per second, at most {@code maxInFlight} at a time; requests due while
+     * that many are outstanding are dropped and counted as such.
+     */
+    LoadResult open(double rate, int maxInFlight, Duration warmUp, Duration duration)
+            throws InterruptedException {
+        LoadResult warmUpResult = new LoadResult(workload.operationNames());
+        LoadResult result = new LoadResult(workload.operationNames());
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Random random = new Random();
+        double interval = 1e9 / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmUp.toNanos();
+        long end = measureFrom + duration.toNanos();
+        for (long i = 0;; i++) {
+            long due = start + (long) (i * interval);
+            if (due >= end) {
+                break;
+            }
+            parkUntil(due);
+            LoadResult target = due < measureFrom ? warmUpResult : result;
+            Workload.Operation operation = workload.next(random);
+            if (!inFlight.tryAcquire()) {
+                target.record(operation.name(), 0, LoadResult.DROPPED);
+                continue;
+            }
+            httpClient.sendAsync(operation.request(random), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.release();
+                        target.record(operation.name(), System.nanoTime() - due,
+                                response != null ? response.statusCode() : LoadResult.FAILED);
+                    });
+        }
+        if (inFlight.tryAcquire(maxInFlight, DRAIN_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        return result;
+    }
+
+    private static void parkUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
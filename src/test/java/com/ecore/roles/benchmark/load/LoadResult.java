@@ -0,0 +1,95 @@
+package com.ecore.roles.benchmark.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of the requests sent during one measurement window, per operation and in
+ * total. Latencies are recorded in microseconds into HdrHistograms, whose percentiles are exact to
+ * three significant digits however long the tail.
+ */
+final class LoadResult {
+
+    static final int FAILED = -1;
+    static final int DROPPED = -2;
+
+    private static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Map<String, Stats> operations = new LinkedHashMap<>();
+    private final Stats total = new Stats();
+
+    LoadResult(List<String> operationNames) {
+        for (String name : operationNames) {
+            operations.put(name, new Stats());
+        }
+    }
+
+    /**
+     * Records a request answered with {@code status}, or that {@link #FAILED} without a response, or
+     * that was {@link #DROPPED} without being sent.
+     */
+    void record(String operation, long latencyNanos, int status) {
+        operations.get(operation).record(latencyNanos, status);
+        total.record(latencyNanos, status);
+    }
+
+    long requests() {
+        return total.histogram.getTotalCount();
+    }
+
+    void print(PrintStream out, Duration window) {
+        double seconds = window.toNanos() / 1e9;
+        out.printf("%-20s %9s %9s %9s %7s %7s %7s %7s %9s %9s %9s %9s%n", "operation", "requests", "req/s",
+                "2xx/3xx",
+                "4xx", "5xx", "failed", "dropped", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        operations.forEach((name, stats) -> stats.print(out, name, seconds));
+        total.print(out, "all", seconds);
+    }
+
+    private static final class Stats {
+
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_MICROS, 3);
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder clientErrors = new LongAdder();
+        private final LongAdder serverErrors = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+
+        private void record(long latencyNanos, int status) {
+            if (status == DROPPED) {
+                dropped.increment();
+                return;
+            }
+            histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), HIGHEST_MICROS));
+            if (status == FAILED) {
+                failures.increment();
+            } else if (status >= 500) {
+                serverErrors.increment();
+            } else if (status >= 400) {
+                clientErrors.increment();
+            } else {
+                successes.increment();
+            }
+        }
+
+        private void print(PrintStream out, String name, double seconds) {
+            long requests = histogram.getTotalCount();
+            out.printf("%-20s %9d %9.1f %9d %7d %7d %7d %7d %9.2f %9.2f %9.2f %9.2f%n", name, requests,
+                    requests / seconds, successes.sum(), clientErrors.sum(), serverErrors.sum(),
+                    failures.sum(),
+                    dropped.sum(), millis(50), millis(99), millis(99.9), histogram.getMaxValue() / 1000d);
+        }
+
+        private double millis(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000d;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.ecore.roles.benchmark.load;
+
+import com.ecore.roles.RolesApplication;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.MembershipViews;
+import com.ecore.roles.index.RoleCatalog;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives every controller of the service, booted in this JVM against local stand-ins of the Users
+ * and Teams APIs and a database seeded with a synthetic dataset, and reports the throughput and the
+ * p50, p99 and p999 latency of each operation. Nothing leaves the machine, so runs are repeatable
+ * and can compare two builds, or two settings of the same build.
+ * <p>
+ * Run with {@code mvn test -Pbenchmark -Dtest=LoadTestBenchmark}, tuned with:
+ * <ul>
+ * <li>{@code loadtest.model}: {@code closed} (default) with {@code loadtest.concurrency} workers,
+ * or {@code open} at {@code loadtest.rate} requests per second, at most
+ * {@code loadtest.max-in-flight} outstanding.</li>
+ * <li>{@code loadtest.warm-up} and {@code loadtest.duration} of the run.</li>
+ * <li>{@code loadtest.users}, {@code loadtest.teams}, {@code loadtest.team-size},
+ * {@code loadtest.unassigned-per-team} and {@code loadtest.roles}: the dataset; the defaults seed a
+ * million memberships.</li>
+ * <li>{@code loadtest.users-api.latency}, {@code loadtest.users-api.error-rate},
+ * {@code loadtest.users-api.stall-rate} and {@code loadtest.users-api.stall}, and the same under
+ * {@code loadtest.teams-api}: the behaviour of the stubs, see {@link LatencyDistribution}.</li>
+ * <li>{@code loadtest.mix}: weights overriding the defaults of {@link Workload}.</li>
+ * <li>{@code loadtest.app.*}: properties of the service itself, e.g.
+ * {@code -Dloadtest.app.clients.engine=reactive}.</li>
+ * </ul>
+ */
+@Tag("benchmark")
+class LoadTestBenchmark {
+
+    private static final String MODEL = System.getProperty("loadtest.model", "closed");
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "500"));
+    private static final int MAX_IN_FLIGHT = Integer.getInteger("loadtest.max-in-flight", 2_000);
+    private static final Duration WARM_UP = duration("loadtest.warm-up", "15s");
+    private static final Duration DURATION = duration("loadtest.duration", "60s");
+
+    private static final long SEED = Long.getLong("loadtest.seed", 42);
+    private static final int USERS = Integer.getInteger("loadtest.users", 200_000);
+    private static final int TEAMS = Integer.getInteger("loadtest.teams", 50_000);
+    private static final int TEAM_SIZE = Integer.getInteger("loadtest.team-size", 22);
+    private static final int UNASSIGNED_PER_TEAM = Integer.getInteger("loadtest.unassigned-per-team", 2);
+    private static final int ROLES = Integer.getInteger("loadtest.roles", 50);
+
+    private static final String APP_PROPERTY_PREFIX = "loadtest.app.";
+
+    @Test
+    void run() throws Exception {
+        SyntheticDataset dataset =
+                SyntheticDataset.generate(SEED, USERS, TEAMS, TEAM_SIZE, UNASSIGNED_PER_TEAM,
+                        ROLES);
+        try (StubUpstreamServer usersApi = StubUpstreamServer.start("/users", dataset.users(),
+                behaviour("loadtest.users-api"));
+                StubUpstreamServer teamsApi = StubUpstreamServer.start("/teams", dataset.teams(),
+                        behaviour("loadtest.teams-api"));
+                ConfigurableApplicationContext context = start(usersApi, teamsApi)) {
+            long started = System.nanoTime();
+            long rows = dataset.seed(context.getBean(DataSource.class));
+            context.getBean(RoleCatalog.class).reload();
+            context.getBean(MembershipIndex.class).reload();
+            context.getBean(MembershipViews.class).reload();
+            System.out.printf("%nSeeded %d rows in %d ms%n", rows, (System.nanoTime() - started) / 1_000_000);
+
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            LoadGenerator generator = new LoadGenerator(Workload.of("http://localhost:" + port, dataset,
+                    System.getProperty("loadtest.mix", "")));
+            LoadResult result;
+            if (MODEL.equals("open")) {
+                System.out.printf("Open model, %.0f requests/s, %s after %s of warm-up%n", RATE, DURATION,
+                        WARM_UP);
+                result = generator.open(RATE, MAX_IN_FLIGHT, WARM_UP, DURATION);
+            } else {
+                System.out.printf("Closed model, %d workers, %s after %s of warm-up%n", CONCURRENCY, DURATION,
+                        WARM_UP);
+                result = generator.closed(CONCURRENCY, WARM_UP, DURATION);
+            }
+            System.out.printf("%d users, %d teams, %d memberships%n%n", USERS, TEAMS,
+                    dataset.membershipCount());
+            result.print(System.out, DURATION);
+            for (StubUpstreamServer stub : List.of(usersApi, teamsApi)) {
+                System.out.printf("%nstub %s: %d requests, %d errors, %d stalls", stub, stub.requests(),
+                        stub.errors(), stub.stalls());
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Boots the service on a random port with its production configuration rather than the test one,
+     * and the clients pointed at the stubs. Properties are passed as command line arguments so that
+     * they take precedence over the configuration file.
+     */
+    private static ConfigurableApplicationContext start(
+            StubUpstreamServer usersApi,
+            StubUpstreamServer teamsApi) {
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.config.location=file:src/main/resources/application.yml",
+                "spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "spring.main.banner-mode=off",
+                "logging.level.root=WARN",
+                "server.port=0",
+                "clients.users-api-host=" + usersApi.url(),
+                "clients.teams-api-host=" + teamsApi.url()));
+        for (Map.Entry<Object, Object> property : System.getProperties().entrySet()) {
+            String key = property.getKey().toString();
+            if (key.startsWith(APP_PROPERTY_PREFIX)) {
+                properties.add(key.substring(APP_PROPERTY_PREFIX.length()) + "=" + property.getValue());
+            }
+        }
+        return new SpringApplicationBuilder(RolesApplication.class)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private static StubUpstreamServer.Behaviour behaviour(String prefix) {
+        return new StubUpstreamServer.Behaviour(
+                LatencyDistribution.parse(System.getProperty(prefix + ".latency", "lognormal:15ms:0.5")),
+                Double.parseDouble(System.getProperty(prefix + ".error-rate", "0.005")),
+                Double.parseDouble(System.getProperty(prefix + ".stall-rate", "0.0005")),
+                duration(prefix + ".stall", "10s"));
+    }
+
+    private static Duration duration(String property, String defaultValue) {
+        return DurationStyle.detectAndParse(System.getProperty(property, defaultValue));
+    }
+}
@@ -0,0 +1,199 @@
+package com.ecore.roles.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for the Users or the Teams API, serving {@code GET <path>} and
+ * {@code GET <path>/<id>} from a generated dataset. Every response is delayed by a sample of the
+ * configured {@link LatencyDistribution}; a fraction of them is answered with 503 instead, and a
+ * fraction stalls for longer than a client would wait before being answered with 504. Responses
+ * carry an ETag and conditional requests matching it are answered with 304, as the real APIs do.
+ */
+final class StubUpstreamServer implements AutoCloseable {
+
+    private final String path;
+    private final Map<UUID, ?> items;
+    private final Behaviour behaviour;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder stalls = new LongAdder();
+
+    private volatile byte[] listing;
+
+    private StubUpstreamServer(String path, Map<UUID, ?> items, Behaviour behaviour) throws IOException {
+        this.path = path;
+        this.items = items;
+        this.behaviour = behaviour;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub" + path);
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.createContext(path, this::handle);
+        server.setExecutor(executor);
+    }
+
+    static StubUpstreamServer start(String path, Map<UUID, ?> items, Behaviour behaviour) throws IOException {
+        StubUpstreamServer stub = new StubUpstreamServer(path, items, behaviour);
+        stub.server.start();
+        return stub;
+    }
+
+    /**
+     * Base URL to configure as {@code clients.users-api-host} or {@code clients.teams-api-host}.
+     */
+    String url() {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long stalls() {
+        return stalls.sum();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String toString() {
+        return path + " " + behaviour;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.increment();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            double roll = random.nextDouble();
+            if (roll < behaviour.stallRate) {
+                stalls.increment();
+                sleep(behaviour.stall.toNanos());
+                respond(exchange, 504, null, null);
+                return;
+            }
+            sleep(behaviour.latency.sampleNanos(random));
+            if (roll < behaviour.stallRate + behaviour.errorRate) {
+                errors.increment();
+                respond(exchange, 503, null, null);
+                return;
+            }
+            byte[] body = body(exchange.getRequestURI().getPath().substring(path.length()));
+            if (body == null) {
+                respond(exchange, 404, null, null);
+                return;
+            }
+            String eTag = "\"" + Integer.toHexString(Arrays.hashCode(body)) + "\"";
+            if (eTag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, eTag, null);
+                return;
+            }
+            respond(exchange, 200, eTag, body);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Returns the encoded listing, the encoded item, or {@code null} when there is no such item.
+     */
+    private byte[] body(String subPath) throws IOException {
+        if (subPath.isEmpty() || subPath.equals("/")) {
+            byte[] encoded = listing;
+            if (encoded == null) {
+                encoded = objectMapper.writeValueAsBytes(new ArrayList<>(items.values()));
+                listing = encoded;
+            }
+            return encoded;
+        }
+        Object item;
+        try {
+            item = items.get(UUID.fromString(subPath.substring(1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return item == null ? null : objectMapper.writeValueAsBytes(item);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String eTag, byte[] body)
+            throws IOException {
+        if (eTag != null) {
+            exchange.getResponseHeaders().set("ETag", eTag);
+        }
+        if (body == null) {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * How a stub answers: its latency, the fraction of requests answered with 503, and the fraction of
+     * requests that hang for {@code stall} before being answered with 504.
+     */
+    static final class Behaviour {
+
+        private final LatencyDistribution latency;
+        private final double errorRate;
+        private final double stallRate;
+        private final Duration stall;
+
+        Behaviour(LatencyDistribution latency, double errorRate, double stallRate, Duration stall) {
+            this.latency = latency;
+            this.errorRate = errorRate;
+            this.stallRate = stallRate;
+            this.stall = stall;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("latency %s, errors %.2f%%, stalls %.2f%% of %s", latency, errorRate * 100,
+                    stallRate * 100, stall);
+        }
+    }
+}
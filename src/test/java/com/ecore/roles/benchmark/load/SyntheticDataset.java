@@ -0,0 +1,231 @@
+package com.ecore.roles.benchmark.load;
+
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.client.model.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Users, teams, roles and memberships generated from a seed, so that two runs with the same sizes
+ * load the same data. Every team has {@code teamSize} members drawn from the users; all but the
+ * last {@code unassignedPerTeam} of them get a role, so the load has memberships to look up as well
+ * as valid ones left to create. Roles are assigned with a geometric skew, a few of them holding
+ * most memberships as in a real organisation.
+ * <p>
+ * Users and teams are served by the {@link StubUpstreamServer}s; roles and memberships are written
+ * straight into the database with JDBC batches, which loads millions of rows in seconds.
+ */
+final class SyntheticDataset {
+
+    private static final String[] FIRST_NAMES = {"Gianni", "Ada", "Grace", "Linus", "Barbara", "Ken"};
+    private static final String[] LAST_NAMES = {"Wehner", "Lovelace", "Hopper", "Torvalds", "Liskov"};
+    private static final String[] LOCATIONS = {"Brakusstad", "Lisbon", "Tallinn", "Porto", "Berlin"};
+    private static final int BATCH_SIZE = 10_000;
+
+    private final long seed;
+    private final int teamSize;
+    private final int assignedPerTeam;
+    private final int roleCount;
+    private final Map<UUID, User> users;
+    private final Map<UUID, Team> teams;
+    private final UUID[] userIds;
+    private final Team[] teamList;
+    private final List<UUID> roleIds = new ArrayList<>();
+
+    private SyntheticDataset(
+            long seed,
+            int userCount,
+            int teamCount,
+            int teamSize,
+            int unassignedPerTeam,
+            int roleCount) {
+        if (teamSize > userCount) {
+            throw new IllegalArgumentException("Teams of " + teamSize + " need at least as many users");
+        }
+        this.seed = seed;
+        this.teamSize = teamSize;
+        this.assignedPerTeam = teamSize - unassignedPerTeam;
+        this.roleCount = roleCount;
+        Random random = new Random(seed);
+        this.users = new LinkedHashMap<>();
+        this.userIds = new UUID[userCount];
+        for (int i = 0; i < userCount; i++) {
+            User user = user(random, i);
+            users.put(user.getId(), user);
+            userIds[i] = user.getId();
+        }
+        this.teams = new LinkedHashMap<>();
+        this.teamList = new Team[teamCount];
+        for (int i = 0; i < teamCount; i++) {
+            Team team = team(random, i);
+            teams.put(team.getId(), team);
+            teamList[i] = team;
+        }
+    }
+
+    static SyntheticDataset generate(
+            long seed,
+            int users,
+            int teams,
+            int teamSize,
+            int unassignedPerTeam,
+            int roles) {
+        return new SyntheticDataset(seed, users, teams, teamSize, unassignedPerTeam, roles);
+    }
+
+    Map<UUID, User> users() {
+        return users;
+    }
+
+    Map<UUID, Team> teams() {
+        return teams;
+    }
+
+    long membershipCount() {
+        return (long) teamList.length * assignedPerTeam;
+    }
+
+    /**
+     * Adds roles up to {@code roles}, on top of the ones created by the migrations, and assigns one to
+     * the first {@code teamSize - unassignedPerTeam} members of every team. Returns the number of rows
+     * inserted.
+     */
+    long seed(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        roleIds.clear();
+        roleIds.addAll(jdbcTemplate.queryForList("select id from role", byte[].class).stream()
+                .map(SyntheticDataset::uuid)
+                .collect(Collectors.toList()));
+        Random random = new Random(seed + 1);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long rows = 0;
+        for (int i = roleIds.size(); i < roleCount; i++) {
+            UUID id = uuid(random);
+            roleIds.add(id);
+            batch.add(new Object[] {bytes(id), String.format("Role %05d", i)});
+        }
+        rows += insert(jdbcTemplate, "insert into role(id, name) values (?, ?)", batch);
+        String insertMembership = "insert into membership(id, user_id, team_id, role_id) values (?, ?, ?, ?)";
+        for (Team team : teamList) {
+            byte[] teamId = bytes(team.getId());
+            for (int member = 0; member < assignedPerTeam; member++) {
+                batch.add(
+                        new Object[] {bytes(uuid(random)), bytes(team.getTeamMemberIds().get(member)), teamId,
+                                bytes(randomRole(random))});
+                if (batch.size() == BATCH_SIZE) {
+                    rows += insert(jdbcTemplate, insertMembership, batch);
+                }
+            }
+        }
+        rows += insert(jdbcTemplate, insertMembership, batch);
+        return rows;
+    }
+
+    UUID randomUser(Random random) {
+        return userIds[random.nextInt(userIds.length)];
+    }
+
+    UUID randomTeam(Random random) {
+        return teamList[random.nextInt(teamList.length)].getId();
+    }
+
+    /**
+     * Returns a role, the first ones more often than the last ones: each of the first roles is picked
+     * about 40% less often than the one before it.
+     */
+    UUID randomRole(Random random) {
+        int index = (int) (-Math.log(1 - random.nextDouble()) * 2);
+        return roleIds.get(Math.min(index, roleIds.size() - 1));
+    }
+
+    /**
+     * Returns a (team, member) pair that was given a role by {@link #seed}, as
+     * {@code [userId, teamId]}.
+     */
+    UUID[] randomMembership(Random random) {
+        Team team = teamList[random.nextInt(teamList.length)];
+        return new UUID[] {team.getTeamMemberIds().get(random.nextInt(assignedPerTeam)), team.getId()};
+    }
+
+    /**
+     * Returns a (team, member) pair that was left without a role by {@link #seed}, as
+     * {@code [userId, teamId]}. Once the load has assigned it, assigning it again is a conflict.
+     */
+    UUID[] randomUnassigned(Random random) {
+        Team team = teamList[random.nextInt(teamList.length)];
+        int member = assignedPerTeam + random.nextInt(teamSize - assignedPerTeam);
+        return new UUID[] {team.getTeamMemberIds().get(member), team.getId()};
+    }
+
+    private User user(Random random, int index) {
+        String firstName = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+        String lastName = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+        return User.builder()
+                .id(uuid(random))
+                .firstName(firstName)
+                .lastName(lastName)
+                .displayName(firstName.toLowerCase() + lastName.toLowerCase() + index)
+                .avatarUrl("https://cdn.fakercloud.com/avatars/" + firstName.toLowerCase() + index + ".jpg")
+                .location(LOCATIONS[random.nextInt(LOCATIONS.length)])
+                .build();
+    }
+
+    private Team team(Random random, int index) {
+        Set<UUID> members = new HashSet<>();
+        List<UUID> memberIds = new ArrayList<>(teamSize);
+        while (memberIds.size() < teamSize) {
+            UUID member = randomUser(random);
+            if (members.add(member)) {
+                memberIds.add(member);
+            }
+        }
+        return Team.builder()
+                .id(uuid(random))
+                .name("Team " + index)
+                .teamLeadId(memberIds.get(0))
+                .teamMemberIds(memberIds)
+                .build();
+    }
+
+    private static int insert(JdbcTemplate jdbcTemplate, String sql, List<Object[]> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        jdbcTemplate.batchUpdate(sql, batch);
+        int inserted = batch.size();
+        batch.clear();
+        return inserted;
+    }
+
+    /**
+     * Version 4 UUID drawn from {@code random} instead of from a secure random source.
+     */
+    private static UUID uuid(Random random) {
+        long most = random.nextLong() & ~0xf000L | 0x4000L;
+        long least = random.nextLong() & ~(0xcL << 60) | (0x8L << 60);
+        return new UUID(most, least);
+    }
+
+    private static UUID uuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,201 @@
+package com.ecore.roles.benchmark.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Weighted mix of requests to every endpoint of the roles, memberships, users and teams
+ * controllers, built from a {@link SyntheticDataset}. The default weights make lookups dominate, as
+ * they do in production, and leave a few percent of writes, exports and full listings.
+ */
+final class Workload {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final int BATCH_SIZE = 10;
+    private static final int PAGE_SIZE = 100;
+    private static final String JSON = "application/json";
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final String baseUrl;
+    private final SyntheticDataset dataset;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final AtomicLong createdRoles = new AtomicLong();
+
+    private Workload(String baseUrl, SyntheticDataset dataset, Map<String, Integer> weights) {
+        this.baseUrl = baseUrl;
+        this.dataset = dataset;
+        this.operations = operations().entrySet().stream()
+                .map(entry -> new Operation(entry.getKey(), weights.getOrDefault(entry.getKey(), 0),
+                        entry.getValue()))
+                .filter(operation -> operation.weight > 0)
+                .collect(Collectors.toList());
+        this.totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        if (totalWeight == 0) {
+            throw new IllegalArgumentException("Every operation has a weight of 0");
+        }
+    }
+
+    /**
+     * Creates the workload, overriding the default weights with {@code mix}, e.g.
+     * {@code roles.search=50,users.list=0}.
+     */
+    static Workload of(String baseUrl, SyntheticDataset dataset, String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>(defaultWeights());
+        if (!mix.isBlank()) {
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split("=");
+                if (!weights.containsKey(parts[0])) {
+                    throw new IllegalArgumentException("Unknown operation " + parts[0] + ", expected one of "
+                            + weights.keySet());
+                }
+                weights.put(parts[0], Integer.parseInt(parts[1]));
+            }
+        }
+        return new Workload(baseUrl, dataset, weights);
+    }
+
+    List<String> operationNames() {
+        return operations.stream().map(operation -> operation.name).collect(Collectors.toList());
+    }
+
+    Operation next(Random random) {
+        int pick = random.nextInt(totalWeight);
+        for (Operation operation : operations) {
+            pick -= operation.weight;
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static Map<String, Integer> defaultWeights() {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        weights.put("roles.create", 1);
+        weights.put("roles.list", 4);
+        weights.put("roles.get", 8);
+        weights.put("roles.search", 25);
+        weights.put("memberships.create", 5);
+        weights.put("memberships.batch", 2);
+        weights.put("memberships.search", 10);
+        weights.put("memberships.export", 1);
+        weights.put("users.list", 1);
+        weights.put("users.batch", 3);
+        weights.put("users.get", 10);
+        weights.put("users.async-list", 1);
+        weights.put("users.async-get", 5);
+        weights.put("teams.list", 1);
+        weights.put("teams.batch", 3);
+        weights.put("teams.get", 10);
+        weights.put("teams.async-list", 1);
+        weights.put("teams.async-get", 5);
+        return weights;
+    }
+
+    private Map<String, Function<Random, HttpRequest>> operations() {
+        Map<String, Function<Random, HttpRequest>> operations = new LinkedHashMap<>();
+        operations.put("roles.create", random -> post("/v1/roles",
+                "{\"name\":\"Load " + UUID.randomUUID() + " " + createdRoles.incrementAndGet() + "\"}"));
+        operations.put("roles.list", random -> get("/v1/roles?pageSize=" + PAGE_SIZE));
+        operations.put("roles.get", random -> get("/v1/roles/" + dataset.randomRole(random)));
+        operations.put("roles.search", random -> {
+            UUID[] membership = dataset.randomMembership(random);
+            return get("/v1/roles/search?teamMemberId=" + membership[0] + "&teamId=" + membership[1]);
+        });
+        operations.put("memberships.create",
+                random -> post("/v1/roles/memberships", membership(random)));
+        operations.put("memberships.batch", random -> post("/v1/roles/memberships/batch",
+                Stream.generate(() -> membership(random)).limit(BATCH_SIZE)
+                        .collect(Collectors.joining(",", "[", "]"))));
+        operations.put("memberships.search", random -> get(
+                "/v1/roles/memberships/search?roleId=" + dataset.randomRole(random) + "&pageSize="
+                        + PAGE_SIZE));
+        operations.put("memberships.export", random -> post(
+                "/v1/roles/memberships/export?teamId=" + dataset.randomTeam(random), "", NDJSON));
+        operations.put("users.list", random -> get("/v1/users"));
+        operations.put("users.batch", random -> post("/v1/users/batch",
+                ids(() -> dataset.randomUser(random))));
+        operations.put("users.get", random -> get("/v1/users/" + dataset.randomUser(random)));
+        operations.put("users.async-list", random -> get("/v1/users/async"));
+        operations.put("users.async-get",
+                random -> get("/v1/users/async/" + dataset.randomUser(random)));
+        operations.put("teams.list", random -> get("/v1/teams"));
+        operations.put("teams.batch", random -> post("/v1/teams/batch",
+                ids(() -> dataset.randomTeam(random))));
+        operations.put("teams.get", random -> get("/v1/teams/" + dataset.randomTeam(random)));
+        operations.put("teams.async-list", random -> get("/v1/teams/async"));
+        operations.put("teams.async-get",
+                random -> get("/v1/teams/async/" + dataset.randomTeam(random)));
+        return operations;
+    }
+
+    /**
+     * Assignment of a role to a member left without one by the dataset; a conflict once the pair has
+     * been assigned by an earlier request.
+     */
+    private String membership(Random random) {
+        UUID[] pair = dataset.randomUnassigned(random);
+        return "{\"roleId\":\"" + dataset.randomRole(random) + "\",\"teamMemberId\":\"" + pair[0]
+                + "\",\"teamId\":\"" + pair[1] + "\"}";
+    }
+
+    private static String ids(Supplier<UUID> id) {
+        return Stream.generate(id).limit(BATCH_SIZE)
+                .map(value -> "\"" + value + "\"")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Accept", JSON)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String path, String body) {
+        return post(path, body, JSON);
+    }
+
+    private HttpRequest post(String path, String body, String accept) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Accept", accept)
+                .header("Content-Type", JSON)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    static final class Operation {
+
+        private final String name;
+        private final int weight;
+        private final Function<Random, HttpRequest> request;
+
+        private Operation(String name, int weight, Function<Random, HttpRequest> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        String name() {
+            return name;
+        }
+
+        HttpRequest request(Random random) {
+            return request.apply(random);
+        }
+    }
+}
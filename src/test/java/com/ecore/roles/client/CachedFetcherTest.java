@@ -0,0 +1,69 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.client.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static com.ecore.roles.utils.TestData.GIANNI_USER;
+import static com.ecore.roles.utils.TestData.GIANNI_USER_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static com.ecore.roles.utils.TestData.UUID_2;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedFetcherTest {
+
+    private static final String CACHE = "users";
+
+    private ConcurrentMapCacheManager cacheManager;
+    private CachedFetcher cachedFetcher;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CACHE);
+        cachedFetcher = new CachedFetcher(cacheManager, Executors.newFixedThreadPool(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cachedFetcher.shutdown();
+    }
+
+    @Test
+    void shouldFetchEachDistinctIdOnceAndSkipMissingOnes() {
+        Set<UUID> requested = ConcurrentHashMap.newKeySet();
+
+        List<User> users = cachedFetcher.fetchAll(CACHE, List.of(GIANNI_USER_UUID, UUID_1, GIANNI_USER_UUID),
+                id -> {
+                    assertThat(requested.add(id)).isTrue();
+                    return id.equals(GIANNI_USER_UUID)
+                            ? ResponseEntity.ok(GIANNI_USER())
+                            : ResponseEntity.notFound().build();
+                });
+
+        assertThat(users).containsExactly(GIANNI_USER());
+        assertThat(requested).containsExactlyInAnyOrder(GIANNI_USER_UUID, UUID_1);
+    }
+
+    @Test
+    void shouldServeCachedEntriesWithoutCallingTheLoader() {
+        cacheManager.getCache(CACHE).put(GIANNI_USER_UUID, ResponseEntity.ok(GIANNI_USER()));
+        Set<UUID> requested = ConcurrentHashMap.newKeySet();
+
+        List<User> users = cachedFetcher.fetchAll(CACHE, List.of(GIANNI_USER_UUID, UUID_2), id -> {
+            requested.add(id);
+            return ResponseEntity.ok(User.builder().id(id).build());
+        });
+
+        assertThat(users).extracting(User::getId).containsExactly(GIANNI_USER_UUID, UUID_2);
+        assertThat(requested).containsExactly(UUID_2);
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.client.model.User;
+import com.ecore.roles.web.actuator.ClientCachesEndpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import static com.ecore.roles.utils.MockUtils.mockGetTeamById;
+import static com.ecore.roles.utils.MockUtils.mockGetUserById;
+import static com.ecore.roles.utils.TestData.GIANNI_USER;
+import static com.ecore.roles.utils.TestData.GIANNI_USER_UUID;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class ClientsCacheTest {
+
+    private final UsersClient usersClient;
+    private final TeamsClient teamsClient;
+    private final RestTemplate restTemplate;
+    private final CacheManager cacheManager;
+    private final ClientCachesEndpoint clientCachesEndpoint;
+
+    private MockRestServiceServer mockServer;
+
+    @Autowired
+    public ClientsCacheTest(
+            UsersClient usersClient,
+            TeamsClient teamsClient,
+            RestTemplate restTemplate,
+            CacheManager cacheManager,
+            ClientCachesEndpoint clientCachesEndpoint) {
+        this.usersClient = usersClient;
+        this.teamsClient = teamsClient;
+        this.restTemplate = restTemplate;
+        this.cacheManager = cacheManager;
+        this.clientCachesEndpoint = clientCachesEndpoint;
+    }
+
+    @BeforeEach
+    void setUp() {
+        mockServer = MockRestServiceServer.createServer(restTemplate);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void shouldServeRepeatedUserLookupsFromCache() {
+        User expectedUser = GIANNI_USER();
+        mockGetUserById(mockServer, GIANNI_USER_UUID, expectedUser);
+
+        ResponseEntity<User> first = usersClient.getUser(GIANNI_USER_UUID);
+        ResponseEntity<User> second = usersClient.getUser(GIANNI_USER_UUID);
+
+        mockServer.verify();
+        assertThat(first.getBody()).isEqualTo(expectedUser);
+        assertThat(second.getBody()).isEqualTo(expectedUser);
+    }
+
+    @Test
+    void shouldServeRepeatedTeamLookupsFromCache() {
+        mockGetTeamById(mockServer, ORDINARY_CORAL_LYNX_TEAM_UUID, ORDINARY_CORAL_LYNX_TEAM());
+
+        teamsClient.getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID);
+        teamsClient.getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID);
+
+        assertThat(cacheManager.getCache("teams").get(ORDINARY_CORAL_LYNX_TEAM_UUID)).isNotNull();
+    }
+
+    @Test
+    void shouldCacheNotFoundUsers() {
+        mockServer.expect(requestTo("http://test.com/users/" + UUID_1))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+        ResponseEntity<User> first = usersClient.getUser(UUID_1);
+        ResponseEntity<User> second = usersClient.getUser(UUID_1);
+
+        mockServer.verify();
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+        assertThat(second.getBody()).isNull();
+    }
+
+    @Test
+    void shouldRefuseUnknownCachesAndMalformedKeysAsClientErrors() {
+        assertThat(clientCachesEndpoint.entry("unknown", UUID_1.toString())).isNull();
+        assertThrows(InvalidEndpointRequestException.class,
+                () -> clientCachesEndpoint.evict("unknown", UUID_1.toString()));
+        assertThrows(InvalidEndpointRequestException.class,
+                () -> clientCachesEndpoint.entry("users", "not-a-uuid"));
+    }
+}
@@ -0,0 +1,234 @@
+package com.ecore.roles.client;
+
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import com.ecore.roles.exception.UpstreamUnavailableException;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static com.ecore.roles.utils.TestData.UUID_2;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UpstreamGuardTest {
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private SimpleMeterRegistry meterRegistry;
+    private UpstreamGuard upstreamGuard;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+        ClientsConfigurationProperties properties = new ClientsConfigurationProperties();
+        properties.setTeamsApiHost("http://teams.test/teams");
+        meterRegistry = new SimpleMeterRegistry();
+        upstreamGuard =
+                new UpstreamGuard(circuitBreakerRegistry, bulkheadRegistry, properties, meterRegistry);
+    }
+
+    @Test
+    void shouldServeLastGoodResponseWhileCircuitIsOpen() {
+        ResponseEntity<Team> good = ResponseEntity.ok(ORDINARY_CORAL_LYNX_TEAM());
+        upstreamGuard.call(Upstream.TEAMS, ORDINARY_CORAL_LYNX_TEAM_UUID, () -> good);
+        for (int i = 0; i < 3; i++) {
+            upstreamGuard.call(Upstream.TEAMS, ORDINARY_CORAL_LYNX_TEAM_UUID, () -> {
+                throw new ResourceAccessException("Connection refused");
+            });
+        }
+        AtomicInteger calls = new AtomicInteger();
+
+        ResponseEntity<Team> response = upstreamGuard.call(Upstream.TEAMS, ORDINARY_CORAL_LYNX_TEAM_UUID,
+                () -> {
+                    calls.incrementAndGet();
+                    return good;
+                });
+
+        assertThat(circuitBreakerRegistry.circuitBreaker("teams").getState())
+                .isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(calls).hasValue(0);
+        assertThat(response).isSameAs(good);
+        assertThat(meterRegistry.get("clients.upstream.rejected").tag("reason", "circuit_open").counter()
+                .count())
+                        .isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailWhenUpstreamIsDownAndNothingIsKnown() {
+        UpstreamUnavailableException exception = assertThrows(UpstreamUnavailableException.class,
+                () -> upstreamGuard.call(Upstream.TEAMS, UUID_1, () -> {
+                    throw new ResourceAccessException("Connection refused");
+                }));
+
+        assertThat(exception.getMessage()).isEqualTo("The teams API is unavailable");
+        assertThat(meterRegistry.get("clients.upstream.fallback").tag("outcome", "unavailable").counter()
+                .count())
+                        .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRejectCallsBeyondTheBulkhead() throws Exception {
+        CountDownLatch inFlight = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowCall = new Thread(() -> upstreamGuard.call(Upstream.TEAMS, UUID_1, () -> {
+            inFlight.countDown();
+            await(release);
+            return ResponseEntity.ok(ORDINARY_CORAL_LYNX_TEAM());
+        }));
+        slowCall.start();
+        inFlight.await(5, TimeUnit.SECONDS);
+
+        assertThrows(UpstreamUnavailableException.class,
+                () -> upstreamGuard.call(Upstream.TEAMS, UUID_2,
+                        () -> ResponseEntity.ok(ORDINARY_CORAL_LYNX_TEAM())));
+        release.countDown();
+        slowCall.join();
+
+        assertThat(meterRegistry.get("clients.upstream.rejected").tag("reason", "bulkhead_full").counter()
+                .count())
+                        .isEqualTo(1);
+    }
+
+    @Test
+    void shouldAdaptTimeoutToObservedLatency() {
+        Duration initial =
+                upstreamGuard.timeoutFor(URI.create("http://teams.test/teams/" + UUID_1)).orElseThrow();
+        AdaptiveTimeout timeout = new AdaptiveTimeout(Duration.ofMillis(200), Duration.ofSeconds(5), 4);
+        for (int i = 0; i < 20; i++) {
+            timeout.recordSuccess(Duration.ofMillis(50).toNanos());
+        }
+        Duration adapted = timeout.current();
+        timeout.recordTimeout();
+
+        assertThat(initial).isEqualTo(Duration.ofSeconds(5));
+        assertThat(adapted).isEqualTo(Duration.ofMillis(200));
+        assertThat(timeout.current()).isEqualTo(Duration.ofMillis(400));
+        assertThat(upstreamGuard.timeoutFor(URI.create("http://elsewhere.test/"))).isEmpty();
+    }
+
+    @Test
+    void shouldRecordTimeoutsAsFailures() {
+        assertThrows(UpstreamUnavailableException.class,
+                () -> upstreamGuard.call(Upstream.USERS, UUID_1, () -> {
+                    throw new ResourceAccessException("Read timed out",
+                            new SocketTimeoutException("Read timed out"));
+                }));
+
+        assertThat(upstreamGuard.timeout(Upstream.USERS)).isEqualTo(Duration.ofSeconds(5));
+        assertThat(circuitBreakerRegistry.circuitBreaker("users").getMetrics().getNumberOfFailedCalls())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void shouldShareOneUpstreamCallAmongConcurrentCallers() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        ResponseEntity<Team> good = ResponseEntity.ok(ORDINARY_CORAL_LYNX_TEAM());
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<Future<ResponseEntity<Team>>> responses = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            responses.add(callers.submit(() -> upstreamGuard.call(Upstream.TEAMS, UUID_1, () -> {
+                calls.incrementAndGet();
+                await(release);
+                return good;
+            })));
+        }
+        while (meterRegistry.get("clients.upstream.coalesced").tag("upstream", "teams").counter()
+                .count() < 3) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        for (Future<ResponseEntity<Team>> response : responses) {
+            assertThat(response.get(5, TimeUnit.SECONDS)).isSameAs(good);
+        }
+        callers.shutdown();
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("clients.upstream.in_flight").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldShareOneAsyncUpstreamCallAndItsError() {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<ResponseEntity<Team>> upstream = Sinks.one();
+        Supplier<Mono<ResponseEntity<Team>>> call = () -> {
+            calls.incrementAndGet();
+            return upstream.asMono();
+        };
+        Mono<ResponseEntity<Team>> first = upstreamGuard.callAsync(Upstream.TEAMS, UUID_1, call);
+        Mono<ResponseEntity<Team>> second = upstreamGuard.callAsync(Upstream.TEAMS, UUID_1, call);
+
+        List<Throwable> errors = new ArrayList<>();
+        first.subscribe(null, errors::add);
+        second.subscribe(null, errors::add);
+        upstream.tryEmitError(new ResourceAccessException("Connection reset"));
+
+        assertThat(errors).hasSize(2).allMatch(UpstreamUnavailableException.class::isInstance);
+        assertThat(errors.get(0)).isSameAs(errors.get(1));
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("clients.upstream.coalesced").tag("upstream", "teams").counter()
+                .count())
+                        .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRevalidateLastGoodResponseWithItsEntityTag() {
+        ResponseEntity<Team> good = ResponseEntity.ok().eTag("\"v1\"").body(ORDINARY_CORAL_LYNX_TEAM());
+        upstreamGuard.call(Upstream.TEAMS, ORDINARY_CORAL_LYNX_TEAM_UUID, () -> good);
+
+        HttpHeaders validators = upstreamGuard.validators(Upstream.TEAMS, ORDINARY_CORAL_LYNX_TEAM_UUID);
+        ResponseEntity<Team> response = upstreamGuard.call(Upstream.TEAMS, ORDINARY_CORAL_LYNX_TEAM_UUID,
+                () -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Team>build());
+
+        assertThat(validators.getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(upstreamGuard.validators(Upstream.TEAMS, UUID_1).getIfNoneMatch()).isEmpty();
+        assertThat(response).isSameAs(good);
+        assertThat(meterRegistry.get("clients.upstream.not_modified").tag("upstream", "teams").counter()
+                .count())
+                        .isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
+import com.ecore.roles.repository.MembershipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static com.ecore.roles.utils.TestData.DEFAULT_MEMBERSHIP;
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE;
+import static com.ecore.roles.utils.TestData.GIANNI_USER_UUID;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
+import static com.ecore.roles.utils.TestData.TESTER_ROLE;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MembershipIndexTest {
+
+    private MembershipIndex membershipIndex;
+    @Mock
+    private MembershipRepository membershipRepository;
+    @Mock
+    private RoleCatalog roleCatalog;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        membershipIndex = new MembershipIndex(membershipRepository, roleCatalog, transactionManager);
+    }
+
+    @Test
+    void shouldLoadExistingMemberships() {
+        Membership membership = DEFAULT_MEMBERSHIP();
+        when(membershipRepository.count()).thenReturn(1L);
+        when(membershipRepository.streamAllIds()).thenReturn(Stream.of(MembershipIds.of(membership)));
+        when(roleCatalog.findById(membership.getRole().getId())).thenReturn(Optional.of(DEVELOPER_ROLE()));
+
+        membershipIndex.reload();
+
+        assertThat(membershipIndex.size()).isEqualTo(1);
+        assertThat(membershipIndex.findRole(GIANNI_USER_UUID, ORDINARY_CORAL_LYNX_TEAM_UUID))
+                .hasValueSatisfying(role -> assertThat(role.getName()).isEqualTo(DEVELOPER_ROLE().getName()));
+        assertThat(membershipIndex.findRole(GIANNI_USER_UUID, UUID_1)).isEmpty();
+    }
+
+    @Test
+    void shouldReflectWritesAndDropDeletedMembershipsOnReload() {
+        membershipIndex.put(UUID_1, ORDINARY_CORAL_LYNX_TEAM_UUID, TESTER_ROLE());
+        assertThat(membershipIndex.findRole(UUID_1, ORDINARY_CORAL_LYNX_TEAM_UUID)).isPresent();
+
+        when(membershipRepository.streamAllIds()).thenReturn(Stream.empty());
+        membershipIndex.reload();
+
+        assertThat(membershipIndex.findRole(UUID_1, ORDINARY_CORAL_LYNX_TEAM_UUID)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepWritesMadeWhileReloading() {
+        Membership membership = DEFAULT_MEMBERSHIP();
+        when(membershipRepository.streamAllIds()).thenReturn(Stream.of(MembershipIds.of(membership))
+                .peek(ids -> membershipIndex.put(UUID_1, ORDINARY_CORAL_LYNX_TEAM_UUID, TESTER_ROLE())));
+        when(roleCatalog.findById(membership.getRole().getId())).thenReturn(Optional.of(DEVELOPER_ROLE()));
+
+        membershipIndex.reload();
+
+        assertThat(membershipIndex.size()).isEqualTo(2);
+        assertThat(membershipIndex.findRole(UUID_1, ORDINARY_CORAL_LYNX_TEAM_UUID))
+                .hasValueSatisfying(role -> assertThat(role.getName()).isEqualTo(TESTER_ROLE().getName()));
+    }
+}
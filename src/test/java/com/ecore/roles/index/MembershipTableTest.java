@@ -0,0 +1,100 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.model.Role;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE;
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE_UUID;
+import static com.ecore.roles.utils.TestData.TESTER_ROLE;
+import static com.ecore.roles.utils.TestData.TESTER_ROLE_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static com.ecore.roles.utils.TestData.UUID_2;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MembershipTableTest {
+
+    @Test
+    void shouldFindWhatWasPut() {
+        MembershipTable table = new MembershipTable(0);
+
+        table.put(UUID_1, UUID_2, DEVELOPER_ROLE());
+
+        assertThat(table.find(UUID_1, UUID_2).getId()).isEqualTo(DEVELOPER_ROLE_UUID);
+        assertThat(table.find(UUID_2, UUID_1)).isNull();
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReplaceTheRoleOfAPair() {
+        MembershipTable table = new MembershipTable(0);
+        table.put(UUID_1, UUID_2, DEVELOPER_ROLE());
+
+        table.put(UUID_1, UUID_2, TESTER_ROLE());
+
+        assertThat(table.find(UUID_1, UUID_2).getName()).isEqualTo(TESTER_ROLE().getName());
+        assertThat(table.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldKeepEveryMembershipWhileGrowing() {
+        MembershipTable table = new MembershipTable(0);
+        long initialFootprint = table.footprintBytes();
+        Random random = new Random(42);
+        List<UUID[]> pairs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            // sequential users in few teams, the worst case for a weak hash
+            UUID[] pair = {new UUID(0, i), new UUID(0, random.nextInt(10))};
+            pairs.add(pair);
+            table.put(pair[0], pair[1], i % 2 == 0 ? DEVELOPER_ROLE() : TESTER_ROLE());
+        }
+
+        for (int i = 0; i < pairs.size(); i++) {
+            UUID[] pair = pairs.get(i);
+            assertThat(table.find(pair[0], pair[1]).getId())
+                    .isEqualTo(i % 2 == 0 ? DEVELOPER_ROLE_UUID : TESTER_ROLE_UUID);
+        }
+        assertThat(table.find(new UUID(0, 10_000), new UUID(0, 0))).isNull();
+        assertThat(table.size()).isEqualTo(10_000);
+        assertThat(table.footprintBytes()).isGreaterThan(initialFootprint).isLessThan(10_000 * 100L);
+    }
+
+    @Test
+    void shouldVisitTheMembersOfARole() {
+        MembershipTable table = new MembershipTable(100);
+        Set<UUID> developers = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            UUID userId = UUID.randomUUID();
+            boolean developer = i % 3 == 0;
+            table.put(userId, UUID_1, developer ? DEVELOPER_ROLE() : TESTER_ROLE());
+            if (developer) {
+                developers.add(userId);
+            }
+        }
+        Set<UUID> visited = new HashSet<>();
+
+        table.forEachOfRole(DEVELOPER_ROLE_UUID, (userMsb, userLsb, teamMsb, teamLsb) -> {
+            assertThat(new UUID(teamMsb, teamLsb)).isEqualTo(UUID_1);
+            visited.add(new UUID(userMsb, userLsb));
+        });
+        table.forEachOfRole(UUID_2, (userMsb, userLsb, teamMsb, teamLsb) -> visited.add(null));
+
+        assertThat(visited).isEqualTo(developers);
+    }
+
+    @Test
+    void shouldStoreEachRoleOnce() {
+        MembershipTable table = new MembershipTable(0);
+        Role developer = DEVELOPER_ROLE();
+        table.put(UUID_1, UUID_1, developer);
+        table.put(UUID_2, UUID_2, DEVELOPER_ROLE());
+
+        assertThat(table.find(UUID_1, UUID_1)).isSameAs(table.find(UUID_2, UUID_2)).isNotSameAs(developer);
+    }
+}
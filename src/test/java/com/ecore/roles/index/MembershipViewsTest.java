@@ -0,0 +1,159 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.PageToken;
+import com.ecore.roles.repository.MembershipRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.ecore.roles.utils.TestData.DEFAULT_MEMBERSHIP;
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE_UUID;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
+import static com.ecore.roles.utils.TestData.TESTER_ROLE;
+import static com.ecore.roles.utils.TestData.TESTER_ROLE_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static com.ecore.roles.utils.TestData.UUID_2;
+import static com.ecore.roles.utils.TestData.UUID_3;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MembershipViewsTest {
+
+    private final MembershipRepository membershipRepository = mock(MembershipRepository.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final MembershipsConfigurationProperties membershipsConfigurationProperties =
+            new MembershipsConfigurationProperties();
+
+    private MembershipViews membershipViews;
+
+    @BeforeEach
+    void setUp() {
+        membershipViews = new MembershipViews(membershipRepository, entityManager,
+                mock(PlatformTransactionManager.class), membershipsConfigurationProperties);
+    }
+
+    @Test
+    void shouldPageThroughMembersOfRoleInIdOrder() {
+        Membership first = membership(UUID_1, UUID_1);
+        Membership second = membership(UUID_2, UUID_2);
+        Membership third = membership(UUID_3, UUID_3);
+        whenStored(third, first, second);
+
+        membershipViews.reload();
+
+        assertThat(membershipViews.findByRoleId(DEVELOPER_ROLE_UUID, null, 2))
+                .extracting(Membership::getId)
+                .containsExactly(UUID_1, UUID_2);
+        assertThat(membershipViews.findByRoleId(DEVELOPER_ROLE_UUID, UUID_2, 2))
+                .extracting(Membership::getId)
+                .containsExactly(UUID_3);
+        assertThat(membershipViews.findByRoleId(TESTER_ROLE_UUID, null, 2)).isEmpty();
+        verify(entityManager).detach(first);
+    }
+
+    @Test
+    void shouldOrderIdsLikeTheDatabase() {
+        UUID low = UUID.fromString("7fffffff-ffff-ffff-ffff-ffffffffffff");
+        UUID high = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+        assertThat(low.compareTo(high)).isPositive();
+        assertThat(MembershipViews.ID_ORDER.compare(low, high)).isNegative();
+        assertThat(PageToken.decode(PageToken.encode(high))).isEqualTo(high);
+    }
+
+    @Test
+    void shouldApplyAssignedMemberships() {
+        whenStored();
+        membershipViews.reload();
+        Membership developer = membership(UUID_1, UUID_1);
+        Membership tester = membership(UUID_2, UUID_2);
+        tester.setRole(TESTER_ROLE());
+
+        membershipViews.onAssigned(new MembershipsAssignedEvent(List.of(developer, tester)));
+
+        assertThat(membershipViews.size()).isEqualTo(2);
+        assertThat(membershipViews.find(tester.getUserId(), ORDINARY_CORAL_LYNX_TEAM_UUID))
+                .map(membership -> membership.getRole().getName())
+                .contains(TESTER_ROLE().getName());
+        List<Membership> exported = new ArrayList<>();
+        membershipViews.forEach(TESTER_ROLE_UUID, ORDINARY_CORAL_LYNX_TEAM_UUID, exported::add);
+        assertThat(exported).extracting(Membership::getId).containsExactly(UUID_2);
+    }
+
+    @Test
+    void shouldReportAndRepairMembershipsMissingFromTheDatabase() {
+        Membership stored = membership(UUID_1, UUID_1);
+        whenStored(stored);
+        membershipViews.reload();
+        Membership lost = membership(UUID_2, UUID_2);
+        membershipViews.onAssigned(new MembershipsAssignedEvent(List.of(lost)));
+        whenStored(stored);
+        when(membershipRepository.findByUserIdAndTeamId(lost.getUserId(), lost.getTeamId()))
+                .thenReturn(Optional.empty());
+
+        MembershipViews.ConsistencyReport report = membershipViews.check(true);
+
+        assertThat(report.isConsistent()).isFalse();
+        assertThat(report.getStored()).isEqualTo(1);
+        assertThat(report.getViewed()).isEqualTo(2);
+        assertThat(report.getUnexpected()).isEqualTo(1);
+        assertThat(report.getSamples()).hasSize(1);
+        assertThat(report.isRepaired()).isTrue();
+        assertThat(membershipViews.size()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotReportMembershipsCommittedWhileChecking() {
+        Membership stored = membership(UUID_1, UUID_1);
+        whenStored(stored);
+        membershipViews.reload();
+        Membership committed = membership(UUID_2, UUID_2);
+        whenStored(stored, committed);
+        when(membershipRepository.findByUserIdAndTeamId(committed.getUserId(), committed.getTeamId()))
+                .thenAnswer(invocation -> {
+                    membershipViews.onAssigned(new MembershipsAssignedEvent(List.of(committed)));
+                    return Optional.of(committed);
+                });
+
+        MembershipViews.ConsistencyReport report = membershipViews.check(false);
+
+        assertThat(report.isConsistent()).isTrue();
+        assertThat(report.getStored()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldStayUnloadedWhenDisabled() {
+        membershipsConfigurationProperties.getViews().setEnabled(false);
+        membershipViews = new MembershipViews(membershipRepository, entityManager,
+                mock(PlatformTransactionManager.class), membershipsConfigurationProperties);
+
+        membershipViews.reload();
+        membershipViews.onAssigned(new MembershipsAssignedEvent(List.of(DEFAULT_MEMBERSHIP())));
+
+        assertThat(membershipViews.isReady()).isFalse();
+        assertThat(membershipViews.size()).isZero();
+    }
+
+    private void whenStored(Membership... memberships) {
+        when(membershipRepository.streamByRoleIdAndTeamId(null, null))
+                .thenAnswer(invocation -> Stream.of(memberships));
+    }
+
+    private static Membership membership(UUID id, UUID userId) {
+        Membership membership = DEFAULT_MEMBERSHIP();
+        membership.setId(id);
+        membership.setUserId(userId);
+        return membership;
+    }
+}
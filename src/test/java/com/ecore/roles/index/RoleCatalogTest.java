@@ -0,0 +1,75 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.model.KeysetPage;
+import com.ecore.roles.model.PageToken;
+import com.ecore.roles.model.Role;
+import com.ecore.roles.repository.RoleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE;
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE_UUID;
+import static com.ecore.roles.utils.TestData.DEVOPS_ROLE;
+import static com.ecore.roles.utils.TestData.PRODUCT_OWNER_ROLE;
+import static com.ecore.roles.utils.TestData.TESTER_ROLE;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoleCatalogTest {
+
+    @InjectMocks
+    private RoleCatalog roleCatalog;
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Test
+    void shouldFindLoadedRolesByIdAndName() {
+        when(roleRepository.findAll()).thenReturn(List.of(DEVELOPER_ROLE(), TESTER_ROLE()));
+
+        roleCatalog.reload();
+
+        assertThat(roleCatalog.size()).isEqualTo(2);
+        assertThat(roleCatalog.findById(DEVELOPER_ROLE_UUID)).isPresent();
+        assertThat(roleCatalog.findByName(TESTER_ROLE().getName())).isPresent();
+        assertThat(roleCatalog.findById(UUID_1)).isEmpty();
+    }
+
+    @Test
+    void shouldPageRolesInIdOrder() {
+        when(roleRepository.findAll())
+                .thenReturn(List.of(TESTER_ROLE(), DEVELOPER_ROLE(), PRODUCT_OWNER_ROLE()));
+        roleCatalog.reload();
+
+        KeysetPage<Role> first = roleCatalog.page(null, 2);
+        KeysetPage<Role> second = roleCatalog.page(PageToken.decode(first.getNextPageToken()), 2);
+
+        assertThat(first.getItems()).extracting(Role::getName)
+                .containsExactly(DEVELOPER_ROLE().getName(), PRODUCT_OWNER_ROLE().getName());
+        assertThat(second.getItems()).extracting(Role::getName).containsExactly(TESTER_ROLE().getName());
+        assertThat(second.getNextPageToken()).isNull();
+    }
+
+    @Test
+    void shouldReuseFirstPageUntilRoleIsAdded() {
+        when(roleRepository.findAll()).thenReturn(List.of(DEVELOPER_ROLE()));
+        roleCatalog.reload();
+        KeysetPage<Role> first = roleCatalog.page(null, 10);
+
+        assertThat(roleCatalog.page(null, 10)).isSameAs(first);
+
+        Role devOps = DEVOPS_ROLE();
+        devOps.setId(UUID_1);
+        roleCatalog.put(devOps);
+
+        assertThat(roleCatalog.page(null, 10)).isNotSameAs(first);
+        assertThat(roleCatalog.page(null, 10).getItems()).hasSize(2);
+        assertThat(roleCatalog.findByName(devOps.getName())).isPresent();
+    }
+}
@@ -0,0 +1,90 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.service.TeamsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static com.ecore.roles.utils.TestData.GIANNI_USER_UUID;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static com.ecore.roles.utils.TestData.UUID_4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TeamRosterIndexTest {
+
+    @Mock
+    private TeamsService teamsService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private TeamRosterIndex teamRosterIndex;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        teamRosterIndex = new TeamRosterIndex(teamsService, new MembershipsConfigurationProperties(),
+                new ClientsConfigurationProperties(), meterRegistry);
+    }
+
+    @Test
+    void shouldFetchRosterOnceAndAnswerFromMemory() {
+        when(teamsService.getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID)).thenReturn(ORDINARY_CORAL_LYNX_TEAM());
+
+        assertThat(teamRosterIndex.isMember(ORDINARY_CORAL_LYNX_TEAM_UUID, GIANNI_USER_UUID)).isTrue();
+        assertThat(teamRosterIndex.isMember(ORDINARY_CORAL_LYNX_TEAM_UUID, UUID_4)).isFalse();
+
+        verify(teamsService, times(1)).getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID);
+        assertThat(meterRegistry.get(TeamRosterIndex.VALIDATION_TIMER).tag("outcome", "member").timer()
+                .count()).isEqualTo(1);
+        assertThat(meterRegistry.get(TeamRosterIndex.VALIDATION_TIMER).tag("outcome", "not_member").timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldCountTeamLeadAsMember() {
+        when(teamsService.getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID)).thenReturn(ORDINARY_CORAL_LYNX_TEAM());
+
+        assertThat(teamRosterIndex.isMember(ORDINARY_CORAL_LYNX_TEAM_UUID, UUID_1)).isTrue();
+    }
+
+    @Test
+    void shouldPropagateUnknownTeam() {
+        when(teamsService.getTeam(UUID_1)).thenThrow(new ResourceNotFoundException(Team.class, UUID_1));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> teamRosterIndex.isMember(UUID_1, GIANNI_USER_UUID));
+
+        assertThat(teamRosterIndex.size()).isZero();
+        assertThat(meterRegistry.get(TeamRosterIndex.VALIDATION_TIMER).tag("outcome", "unknown_team").timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldPreloadMissingRostersInBulk() {
+        when(teamsService.getTeams(List.of(ORDINARY_CORAL_LYNX_TEAM_UUID)))
+                .thenReturn(List.of(ORDINARY_CORAL_LYNX_TEAM()));
+
+        teamRosterIndex.preload(List.of(ORDINARY_CORAL_LYNX_TEAM_UUID, ORDINARY_CORAL_LYNX_TEAM_UUID));
+        teamRosterIndex.preload(List.of(ORDINARY_CORAL_LYNX_TEAM_UUID));
+
+        assertThat(teamRosterIndex.isMember(ORDINARY_CORAL_LYNX_TEAM_UUID, GIANNI_USER_UUID)).isTrue();
+        verify(teamsService, times(1)).getTeams(List.of(ORDINARY_CORAL_LYNX_TEAM_UUID));
+        verify(teamsService, never()).getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID);
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecore.roles.index;
+
+import com.ecore.roles.client.TeamsClient;
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.ClientsConfigurationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static com.ecore.roles.utils.TestData.GIANNI_USER_UUID;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static com.ecore.roles.utils.TestData.UUID_4;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TeamsReplicaTest {
+
+    @Mock
+    private TeamsClient teamsClient;
+
+    private ClientsConfigurationProperties clientsConfigurationProperties;
+    private SimpleMeterRegistry meterRegistry;
+    private TeamsReplica teamsReplica;
+
+    @BeforeEach
+    void setUp() {
+        clientsConfigurationProperties = new ClientsConfigurationProperties();
+        clientsConfigurationProperties.getReplica().setEnabled(true);
+        meterRegistry = new SimpleMeterRegistry();
+        teamsReplica = new TeamsReplica(teamsClient, clientsConfigurationProperties, meterRegistry);
+    }
+
+    @Test
+    void shouldServeOnlyAfterFirstSuccessfulSync() {
+        when(teamsClient.getTeams()).thenThrow(new IllegalStateException("Teams API is down"));
+
+        teamsReplica.sync();
+
+        assertThat(teamsReplica.isServing()).isFalse();
+        assertThat(meterRegistry.get(TeamsReplica.SYNC_TIMER).tag("outcome", "failure").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get(TeamsReplica.STALENESS_GAUGE).gauge().value()).isNaN();
+    }
+
+    @Test
+    void shouldReplicateTeamsWithTheirMembers() {
+        Team team = ORDINARY_CORAL_LYNX_TEAM();
+        when(teamsClient.getTeams()).thenReturn(ResponseEntity.ok(List.of(team)));
+
+        teamsReplica.sync();
+
+        assertThat(teamsReplica.isServing()).isTrue();
+        assertThat(teamsReplica.findById(ORDINARY_CORAL_LYNX_TEAM_UUID)).contains(team);
+        assertThat(teamsReplica.findById(UUID_1)).isEmpty();
+        assertThat(teamsReplica.findAllById(List.of(UUID_1, ORDINARY_CORAL_LYNX_TEAM_UUID)))
+                .containsExactly(team);
+        assertThat(meterRegistry.get(TeamsReplica.STALENESS_GAUGE).gauge().value()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    void shouldRebuildOnlyChangedTeams() {
+        Team unchanged = ORDINARY_CORAL_LYNX_TEAM();
+        Team changed =
+                Team.builder().id(UUID_1).name("Platform").teamMemberIds(List.of(GIANNI_USER_UUID)).build();
+        Team changedAgain = Team.builder().id(UUID_1).name("Platform").teamMemberIds(List.of(UUID_4)).build();
+        when(teamsClient.getTeams())
+                .thenReturn(ResponseEntity.ok(List.of(unchanged, changed)))
+                .thenReturn(ResponseEntity.ok(List.of(unchanged, changedAgain)));
+
+        teamsReplica.sync();
+        teamsReplica.sync();
+
+        assertThat(meterRegistry.get("teams.replica.rebuilt").counter().count()).isEqualTo(3);
+        assertThat(teamsReplica.findById(UUID_1)).contains(changedAgain);
+        assertThat(teamsReplica.findById(ORDINARY_CORAL_LYNX_TEAM_UUID)).contains(unchanged);
+    }
+
+    @Test
+    void shouldNotServeWhenDisabled() {
+        clientsConfigurationProperties.getReplica().setEnabled(false);
+        when(teamsClient.getTeams()).thenReturn(ResponseEntity.ok(List.of(ORDINARY_CORAL_LYNX_TEAM())));
+
+        teamsReplica.sync();
+
+        assertThat(teamsReplica.isServing()).isFalse();
+    }
+}
@@ -0,0 +1,193 @@
+package com.ecore.roles.service;
+
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.exception.ResourceExistsException;
+import com.ecore.roles.exception.WriteQueueFullException;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.MembershipsAssignedEvent;
+import com.ecore.roles.model.AssignmentStatus;
+import com.ecore.roles.model.Membership;
+import com.ecore.roles.repository.MembershipRepository;
+import com.ecore.roles.service.impl.MembershipWriteQueue;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MembershipWriteQueueTest {
+
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    private final MembershipRepository membershipRepository = mock(MembershipRepository.class);
+    private final MembershipIndex membershipIndex = mock(MembershipIndex.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final MembershipsConfigurationProperties membershipsConfigurationProperties =
+            new MembershipsConfigurationProperties();
+    private final CountDownLatch writing = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private MembershipWriteQueue writeQueue;
+
+    @BeforeEach
+    void setUp() {
+        membershipsConfigurationProperties.getWriteBehind().setEnabled(true);
+        membershipsConfigurationProperties.getWriteBehind().setQueueCapacity(2);
+        when(transactionTemplate.execute(any())).thenAnswer(
+                invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        writeQueue = new MembershipWriteQueue(membershipRepository, membershipIndex, transactionTemplate,
+                eventPublisher, membershipsConfigurationProperties, new SimpleMeterRegistry());
+        writeQueue.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        writeQueue.stop();
+    }
+
+    @Test
+    void shouldWriteWhatQueuedUpWhileWritingInOneTransaction() throws InterruptedException {
+        holdFirstWrite();
+        Membership second = membership();
+        Membership third = membership();
+        AssignmentStatus firstStatus = writeQueue.submit(membership()).orElseThrow();
+        assertThat(writing.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        AssignmentStatus secondStatus = writeQueue.submit(second).orElseThrow();
+        AssignmentStatus thirdStatus = writeQueue.submit(third).orElseThrow();
+
+        assertThat(writeQueue.status(secondStatus.getTrackingId()).orElseThrow().isPending()).isTrue();
+        release.countDown();
+
+        for (AssignmentStatus status : List.of(firstStatus, secondStatus, thirdStatus)) {
+            assertThat(awaitCompleted(status.getTrackingId()).getResult().isAssigned()).isTrue();
+        }
+        verify(membershipRepository).saveAll(List.of(second, third));
+        verify(membershipIndex).put(third.getUserId(), third.getTeamId(), third.getRole());
+        verify(eventPublisher).publishEvent(argThat((MembershipsAssignedEvent event) -> event.getMemberships()
+                .equals(List.of(second, third))));
+    }
+
+    @Test
+    void shouldRefuseAssignmentsOnceTheQueueIsFull() throws InterruptedException {
+        holdFirstWrite();
+        writeQueue.submit(membership());
+        assertThat(writing.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        writeQueue.submit(membership());
+        writeQueue.submit(membership());
+
+        WriteQueueFullException exception = assertThrows(WriteQueueFullException.class,
+                () -> writeQueue.submit(membership()));
+
+        assertThat(exception.getMessage())
+                .isEqualTo("Membership write queue is full with 2 pending writes, retry later");
+        assertThat(writeQueue.size()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldRefuseToQueueTheSameUserAndTeamTwice() throws InterruptedException {
+        holdFirstWrite();
+        writeQueue.submit(membership());
+        assertThat(writing.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+        Membership membership = membership();
+        writeQueue.submit(membership);
+
+        Membership again = membership();
+        again.setUserId(membership.getUserId());
+        again.setTeamId(membership.getTeamId());
+
+        assertThrows(ResourceExistsException.class, () -> writeQueue.submit(again));
+    }
+
+    @Test
+    void shouldWriteOneAtATimeWhenABatchViolatesAConstraint() throws InterruptedException {
+        Membership duplicate = membership();
+        when(membershipRepository.saveAll(anyList())).thenThrow(constraintViolation());
+        when(membershipRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            Membership membership = invocation.getArgument(0);
+            if (membership == duplicate) {
+                throw constraintViolation();
+            }
+            membership.setId(UUID.randomUUID());
+            return membership;
+        });
+
+        AssignmentStatus rejected = writeQueue.submit(duplicate).orElseThrow();
+        AssignmentStatus assigned = writeQueue.submit(membership()).orElseThrow();
+
+        assertThat(awaitCompleted(rejected.getTrackingId()).getResult().getError())
+                .isInstanceOf(ResourceExistsException.class);
+        assertThat(awaitCompleted(assigned.getTrackingId()).getResult().isAssigned()).isTrue();
+    }
+
+    @Test
+    void shouldLeaveAssignmentsToTheCallerOnceStopped() throws InterruptedException {
+        writeQueue.stop();
+
+        assertThat(writeQueue.submit(membership())).isEmpty();
+        assertThat(writeQueue.size()).isZero();
+    }
+
+    @Test
+    void shouldNotKnowUnsubmittedTrackingIds() {
+        assertThat(writeQueue.status(UUID.randomUUID())).isEmpty();
+    }
+
+    /**
+     * Blocks the writer in its first transaction until {@link #release} is counted down, so that what
+     * is submitted meanwhile queues up.
+     */
+    private void holdFirstWrite() {
+        when(membershipRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertThat(release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+            return invocation.getArgument(0);
+        });
+    }
+
+    private AssignmentStatus awaitCompleted(UUID trackingId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        AssignmentStatus status = writeQueue.status(trackingId).orElseThrow();
+        while (status.isPending() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            status = writeQueue.status(trackingId).orElseThrow();
+        }
+        assertThat(status.isPending()).isFalse();
+        return status;
+    }
+
+    private static Membership membership() {
+        return Membership.builder()
+                .role(DEVELOPER_ROLE())
+                .userId(UUID.randomUUID())
+                .teamId(UUID.randomUUID())
+                .build();
+    }
+
+    private static DataIntegrityViolationException constraintViolation() {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("constraint violated"), Membership.USER_TEAM_UNIQUE_KEY));
+    }
+}
@@ -1,25 +1,70 @@
 package com.ecore.roles.service;
 
+import com.ecore.roles.configuration.MembershipsConfigurationProperties;
+import com.ecore.roles.configuration.PaginationConfigurationProperties;
 import com.ecore.roles.exception.InvalidArgumentException;
 import com.ecore.roles.exception.ResourceExistsException;
+import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.MembershipViews;
+import com.ecore.roles.index.MembershipsAssignedEvent;
+import com.ecore.roles.index.RoleCatalog;
+import com.ecore.roles.index.TeamRosterIndex;
+import com.ecore.roles.model.AssignmentResult;
+import com.ecore.roles.model.AssignmentStatus;
+import com.ecore.roles.model.KeysetPage;
 import com.ecore.roles.model.Membership;
+import com.ecore.roles.model.MembershipIds;
+import com.ecore.roles.model.Role;
 import com.ecore.roles.repository.MembershipRepository;
 import com.ecore.roles.repository.RoleRepository;
+import com.ecore.roles.service.impl.MembershipWriteQueue;
 import com.ecore.roles.service.impl.MembershipsServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
+import javax.persistence.EntityManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static com.ecore.roles.utils.TestData.DEFAULT_MEMBERSHIP;
 import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE;
+import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE_UUID;
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static com.ecore.roles.utils.TestData.UUID_2;
+import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
@@ -34,27 +79,88 @@ class MembershipsServiceTest {
     @Mock
     private RoleRepository roleRepository;
     @Mock
+    private RoleCatalog roleCatalog;
+    @Mock
+    private MembershipIndex membershipIndex;
+    @Mock
+    private TeamRosterIndex teamRosterIndex;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Spy
+    private MembershipsConfigurationProperties membershipsConfigurationProperties =
+            new MembershipsConfigurationProperties();
+    @Spy
+    private PaginationConfigurationProperties paginationConfigurationProperties =
+            new PaginationConfigurationProperties();
+    @Mock
+    private EntityManager entityManager;
+    @Mock
     private UsersService usersService;
     @Mock
     private TeamsService teamsService;
+    @Mock
+    private MembershipWriteQueue membershipWriteQueue;
+    @Mock
+    private MembershipViews membershipViews;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @Test
     public void shouldCreateMembership() {
         Membership expectedMembership = DEFAULT_MEMBERSHIP();
-        when(roleRepository.findById(expectedMembership.getRole().getId()))
-                .thenReturn(Optional.ofNullable(DEVELOPER_ROLE()));
-        when(membershipRepository.findByUserIdAndTeamId(expectedMembership.getUserId(),
-                expectedMembership.getTeamId()))
-                        .thenReturn(Optional.empty());
+        Role developerRole = DEVELOPER_ROLE();
+        when(roleCatalog.findById(expectedMembership.getRole().getId()))
+                .thenReturn(Optional.of(developerRole));
+        when(teamRosterIndex.isMember(expectedMembership.getTeamId(), expectedMembership.getUserId()))
+                .thenReturn(true);
         when(membershipRepository
-                .save(expectedMembership))
+                .saveAndFlush(expectedMembership))
                         .thenReturn(expectedMembership);
 
         Membership actualMembership = membershipsService.assignRoleToMembership(expectedMembership);
 
         assertNotNull(actualMembership);
         assertEquals(actualMembership, expectedMembership);
-        verify(roleRepository).findById(expectedMembership.getRole().getId());
+        verify(roleCatalog).findById(expectedMembership.getRole().getId());
+        verify(membershipRepository, never()).findByUserIdAndTeamId(any(), any());
+        verify(membershipIndex).put(expectedMembership.getUserId(), expectedMembership.getTeamId(),
+                developerRole);
+        verify(eventPublisher).publishEvent(argThat((MembershipsAssignedEvent event) -> event.getMemberships()
+                .equals(List.of(expectedMembership))));
+    }
+
+    @Test
+    public void shouldQueueValidatedMembershipWhenWriteBehindIsRunning() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        Role developerRole = DEVELOPER_ROLE();
+        when(roleCatalog.findById(DEVELOPER_ROLE_UUID)).thenReturn(Optional.of(developerRole));
+        when(teamRosterIndex.isMember(expectedMembership.getTeamId(), expectedMembership.getUserId()))
+                .thenReturn(true);
+        when(membershipWriteQueue.submit(expectedMembership))
+                .thenReturn(Optional.of(AssignmentStatus.pending(UUID_1)));
+
+        AssignmentStatus status = membershipsService.queueRoleAssignment(expectedMembership);
+
+        assertTrue(status.isPending());
+        assertEquals(UUID_1, status.getTrackingId());
+        assertEquals(developerRole, expectedMembership.getRole());
+        verify(membershipRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void shouldStoreMembershipRightAwayWhenWriteBehindIsNotRunning() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        when(membershipWriteQueue.submit(expectedMembership)).thenReturn(Optional.empty());
+        when(roleCatalog.findById(DEVELOPER_ROLE_UUID)).thenReturn(Optional.of(DEVELOPER_ROLE()));
+        when(teamRosterIndex.isMember(expectedMembership.getTeamId(), expectedMembership.getUserId()))
+                .thenReturn(true);
+        when(membershipRepository.saveAndFlush(expectedMembership)).thenReturn(expectedMembership);
+
+        AssignmentStatus status = membershipsService.queueRoleAssignment(expectedMembership);
+
+        assertFalse(status.isPending());
+        assertEquals(expectedMembership, status.getResult().getMembership());
+        verify(membershipRepository).saveAndFlush(expectedMembership);
     }
 
     @Test
@@ -66,9 +172,8 @@ class MembershipsServiceTest {
     @Test
     public void shouldFailToCreateMembershipWhenItExists() {
         Membership expectedMembership = DEFAULT_MEMBERSHIP();
-        when(membershipRepository.findByUserIdAndTeamId(expectedMembership.getUserId(),
-                expectedMembership.getTeamId()))
-                        .thenReturn(Optional.of(expectedMembership));
+        when(membershipIndex.findRole(expectedMembership.getUserId(), expectedMembership.getTeamId()))
+                .thenReturn(Optional.of(DEVELOPER_ROLE()));
 
         ResourceExistsException exception = assertThrows(ResourceExistsException.class,
                 () -> membershipsService.assignRoleToMembership(expectedMembership));
@@ -79,6 +184,62 @@ class MembershipsServiceTest {
         verify(teamsService, times(0)).getTeam(any());
     }
 
+    @Test
+    public void shouldFailToCreateMembershipWhenUserIsNotOnTeamRoster() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        when(roleCatalog.findById(DEVELOPER_ROLE_UUID)).thenReturn(Optional.of(DEVELOPER_ROLE()));
+        when(teamRosterIndex.isMember(expectedMembership.getTeamId(), expectedMembership.getUserId()))
+                .thenReturn(false);
+
+        InvalidArgumentException exception = assertThrows(InvalidArgumentException.class,
+                () -> membershipsService.assignRoleToMembership(expectedMembership));
+
+        assertEquals("Invalid 'Membership' object. The provided user doesn't belong to the provided team.",
+                exception.getMessage());
+        verify(membershipRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    public void shouldCreateMembershipWithoutRosterCheckWhenValidationIsDisabled() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        membershipsConfigurationProperties.getValidation().setEnabled(false);
+        when(roleCatalog.findById(DEVELOPER_ROLE_UUID)).thenReturn(Optional.of(DEVELOPER_ROLE()));
+        when(membershipRepository.saveAndFlush(expectedMembership)).thenReturn(expectedMembership);
+
+        membershipsService.assignRoleToMembership(expectedMembership);
+
+        verify(teamRosterIndex, never()).isMember(any(), any());
+    }
+
+    @Test
+    public void shouldFailToCreateMembershipWhenConcurrentInsertWins() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        when(roleCatalog.findById(DEVELOPER_ROLE_UUID)).thenReturn(Optional.of(DEVELOPER_ROLE()));
+        when(teamRosterIndex.isMember(any(), any())).thenReturn(true);
+        when(membershipRepository.saveAndFlush(expectedMembership))
+                .thenThrow(constraintViolation("PUBLIC.UK_MEMBERSHIP_USER_TEAM_INDEX_7"));
+
+        ResourceExistsException exception = assertThrows(ResourceExistsException.class,
+                () -> membershipsService.assignRoleToMembership(expectedMembership));
+
+        assertEquals("Membership already exists", exception.getMessage());
+        verify(membershipIndex, never()).put(any(), any(), any());
+    }
+
+    @Test
+    public void shouldFailToCreateMembershipWhenRoleIsDeletedConcurrently() {
+        Membership expectedMembership = DEFAULT_MEMBERSHIP();
+        when(roleCatalog.findById(DEVELOPER_ROLE_UUID)).thenReturn(Optional.of(DEVELOPER_ROLE()));
+        when(teamRosterIndex.isMember(any(), any())).thenReturn(true);
+        when(membershipRepository.saveAndFlush(expectedMembership))
+                .thenThrow(constraintViolation("FK_MEMBERSHIP_ROLE"));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> membershipsService.assignRoleToMembership(expectedMembership));
+
+        assertEquals(format("Role %s not found", DEVELOPER_ROLE_UUID), exception.getMessage());
+    }
+
     @Test
     public void shouldFailToCreateMembershipWhenItHasInvalidRole() {
         Membership expectedMembership = DEFAULT_MEMBERSHIP();
@@ -94,10 +255,169 @@ class MembershipsServiceTest {
         verify(teamsService, times(0)).getTeam(any());
     }
 
+    @Test
+    public void shouldAssignRolesInBatchAndRejectInvalidItems() {
+        Role developerRole = DEVELOPER_ROLE();
+        Membership valid = DEFAULT_MEMBERSHIP();
+        Membership duplicate = DEFAULT_MEMBERSHIP();
+        Membership unknownRole = DEFAULT_MEMBERSHIP();
+        unknownRole.setTeamId(UUID_2);
+        unknownRole.setRole(Role.builder().id(UUID_1).build());
+        when(roleCatalog.findAllById(any())).thenReturn(Map.of(DEVELOPER_ROLE_UUID, developerRole));
+        when(membershipRepository.findByUserIdInAndTeamIdIn(anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(teamRosterIndex.isMember(valid.getTeamId(), valid.getUserId())).thenReturn(true);
+        when(membershipRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        List<AssignmentResult> results =
+                membershipsService.assignRolesToMemberships(List.of(valid, duplicate, unknownRole));
+
+        assertEquals(3, results.size());
+        assertEquals(valid, results.get(0).getMembership());
+        assertEquals(ResourceExistsException.class, results.get(1).getError().getClass());
+        assertEquals(ResourceNotFoundException.class, results.get(2).getError().getClass());
+        verify(membershipRepository).saveAll(List.of(valid));
+        verify(membershipIndex).put(valid.getUserId(), valid.getTeamId(), developerRole);
+        verify(teamRosterIndex).preload(Set.of(valid.getTeamId()));
+    }
+
+    @Test
+    public void shouldInsertChunkOneAtATimeWhenAConcurrentDuplicateRollsItBack() {
+        Role developerRole = DEVELOPER_ROLE();
+        Membership stored = DEFAULT_MEMBERSHIP();
+        Membership concurrentDuplicate = DEFAULT_MEMBERSHIP();
+        concurrentDuplicate.setTeamId(UUID_2);
+        when(roleCatalog.findAllById(any())).thenReturn(Map.of(DEVELOPER_ROLE_UUID, developerRole));
+        when(membershipRepository.findByUserIdInAndTeamIdIn(anyCollection(), anyCollection()))
+                .thenReturn(Collections.emptyList());
+        when(teamRosterIndex.isMember(any(), any())).thenReturn(true);
+        when(membershipRepository.saveAll(anyList()))
+                .thenThrow(constraintViolation("PUBLIC.UK_MEMBERSHIP_USER_TEAM_INDEX_7"));
+        when(membershipRepository.saveAndFlush(stored)).thenReturn(stored);
+        when(membershipRepository.saveAndFlush(concurrentDuplicate))
+                .thenThrow(constraintViolation("PUBLIC.UK_MEMBERSHIP_USER_TEAM_INDEX_7"));
+
+        List<AssignmentResult> results =
+                membershipsService.assignRolesToMemberships(List.of(stored, concurrentDuplicate));
+
+        assertEquals(stored, results.get(0).getMembership());
+        assertEquals(ResourceExistsException.class, results.get(1).getError().getClass());
+        verify(membershipIndex).put(stored.getUserId(), stored.getTeamId(), developerRole);
+        verify(membershipIndex, never()).put(concurrentDuplicate.getUserId(), concurrentDuplicate.getTeamId(),
+                developerRole);
+    }
+
+    @Test
+    public void shouldFailToAssignRolesInBatchWhenBatchIsTooLarge() {
+        membershipsConfigurationProperties.getBatch().setMaxSize(1);
+
+        assertThrows(InvalidArgumentException.class,
+                () -> membershipsService.assignRolesToMemberships(
+                        List.of(DEFAULT_MEMBERSHIP(), DEFAULT_MEMBERSHIP())));
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void shouldGetFirstPageOfMembershipsWithNextPageToken() {
+        MembershipIds first = MembershipIds.of(DEFAULT_MEMBERSHIP());
+        Membership secondMembership = DEFAULT_MEMBERSHIP();
+        secondMembership.setId(UUID_2);
+        MembershipIds second = MembershipIds.of(secondMembership);
+        when(membershipRepository.findIdsByRoleId(DEVELOPER_ROLE_UUID,
+                PageRequest.of(0, 2, Sort.by("role.id", "id"))))
+                        .thenReturn(List.of(first, second));
+
+        KeysetPage<MembershipIds> page = membershipsService.getMemberships(DEVELOPER_ROLE_UUID, null, 1);
+
+        assertEquals(List.of(first), page.getItems());
+        assertNotNull(page.getNextPageToken());
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    public void shouldGetLastPageOfMembershipsWithoutNextPageToken() {
+        MembershipIds membership = MembershipIds.of(DEFAULT_MEMBERSHIP());
+        KeysetPage<MembershipIds> firstPage =
+                KeysetPage.of(List.of(membership, membership), 1, MembershipIds::getId);
+        when(membershipRepository.findIdsByRoleIdAndIdGreaterThan(DEVELOPER_ROLE_UUID, membership.getId(),
+                PageRequest.of(0, 101, Sort.by("role.id", "id"))))
+                        .thenReturn(List.of(membership));
+
+        KeysetPage<MembershipIds> page = membershipsService.getMemberships(DEVELOPER_ROLE_UUID,
+                firstPage.getNextPageToken(), null);
+
+        assertEquals(List.of(membership), page.getItems());
+        assertNull(page.getNextPageToken());
+    }
+
+    @Test
+    public void shouldFailToGetMembershipsWhenPageTokenIsMalformed() {
+        InvalidArgumentException exception = assertThrows(InvalidArgumentException.class,
+                () -> membershipsService.getMemberships(DEVELOPER_ROLE_UUID, "not-a-token", null));
+
+        assertEquals("Invalid 'PageToken' object. The page token is malformed.", exception.getMessage());
+    }
+
+    @Test
+    public void shouldGetMembershipsFromViewsOnceLoaded() {
+        Membership first = DEFAULT_MEMBERSHIP();
+        Membership second = DEFAULT_MEMBERSHIP();
+        second.setId(UUID_2);
+        when(membershipViews.isReady()).thenReturn(true);
+        when(membershipViews.findByRoleId(DEVELOPER_ROLE_UUID, null, 2)).thenReturn(List.of(first, second));
+
+        KeysetPage<MembershipIds> page = membershipsService.getMemberships(DEVELOPER_ROLE_UUID, null, 1);
+
+        assertEquals(List.of(MembershipIds.of(first)), page.getItems());
+        assertNotNull(page.getNextPageToken());
+        verify(membershipRepository, never()).findIdsByRoleId(any(), any());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void shouldExportMembershipsFromViewsOnceLoaded() {
+        Membership membership = DEFAULT_MEMBERSHIP();
+        when(membershipViews.isReady()).thenReturn(true);
+        doAnswer(invocation -> {
+            invocation.<Consumer<Membership>>getArgument(2).accept(membership);
+            return null;
+        }).when(membershipViews).forEach(eq(DEVELOPER_ROLE_UUID), isNull(), any());
+        List<Membership> exported = new ArrayList<>();
+
+        membershipsService.exportMemberships(DEVELOPER_ROLE_UUID, null, exported::add);
+
+        assertEquals(List.of(membership), exported);
+        verify(membershipRepository, never()).streamByRoleIdAndTeamId(any(), any());
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    public void shouldExportMembershipsAndDetachThem() {
+        Membership first = DEFAULT_MEMBERSHIP();
+        Membership second = DEFAULT_MEMBERSHIP();
+        second.setTeamId(UUID_2);
+        when(membershipRepository.streamByRoleIdAndTeamId(DEVELOPER_ROLE_UUID, null))
+                .thenReturn(Stream.of(first, second));
+        List<Membership> exported = new ArrayList<>();
+
+        membershipsService.exportMemberships(DEVELOPER_ROLE_UUID, null, exported::add);
+
+        assertEquals(List.of(first, second), exported);
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(transactionManager).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    private static DataIntegrityViolationException constraintViolation(String constraintName) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement",
+                        new SQLException("constraint violated"), constraintName));
+    }
+
     @Test
     public void shouldFailToGetMembershipsWhenRoleIdIsNull() {
         assertThrows(NullPointerException.class,
-                () -> membershipsService.getMemberships(null));
+                () -> membershipsService.getMemberships(null, null, null));
     }
 
 }
@@ -1,6 +1,12 @@
 package com.ecore.roles.service;
 
+import com.ecore.roles.client.model.Team;
+import com.ecore.roles.configuration.PaginationConfigurationProperties;
 import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.index.MembershipIndex;
+import com.ecore.roles.index.RoleCatalog;
+import com.ecore.roles.model.KeysetPage;
+import com.ecore.roles.model.PageToken;
 import com.ecore.roles.model.Role;
 import com.ecore.roles.repository.MembershipRepository;
 import com.ecore.roles.repository.RoleRepository;
@@ -9,16 +15,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Optional;
 
 import static com.ecore.roles.utils.TestData.DEVELOPER_ROLE;
+import static com.ecore.roles.utils.TestData.GIANNI_USER_UUID;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM;
+import static com.ecore.roles.utils.TestData.PRODUCT_OWNER_ROLE;
+import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
 import static com.ecore.roles.utils.TestData.UUID_1;
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +50,19 @@ class RolesServiceTest {
     @Mock
     private MembershipsService membershipsService;
 
+    @Mock
+    private MembershipIndex membershipIndex;
+
+    @Mock
+    private RoleCatalog roleCatalog;
+
+    @Mock
+    private TeamsService teamsService;
+
+    @Spy
+    private PaginationConfigurationProperties paginationConfigurationProperties =
+            new PaginationConfigurationProperties();
+
     @Test
     public void shouldCreateRole() {
         Role developerRole = DEVELOPER_ROLE();
@@ -45,6 +72,7 @@ class RolesServiceTest {
 
         assertNotNull(role);
         assertEquals(developerRole, role);
+        verify(roleCatalog).put(developerRole);
     }
 
     @Test
@@ -56,7 +84,7 @@ class RolesServiceTest {
     @Test
     public void shouldReturnRoleWhenRoleIdExists() {
         Role developerRole = DEVELOPER_ROLE();
-        when(roleRepository.findById(developerRole.getId())).thenReturn(Optional.of(developerRole));
+        when(roleCatalog.findById(developerRole.getId())).thenReturn(Optional.of(developerRole));
 
         Role role = rolesService.GetRole(developerRole.getId());
 
@@ -71,4 +99,57 @@ class RolesServiceTest {
 
         assertEquals(format("Role %s not found", UUID_1), exception.getMessage());
     }
+
+    @Test
+    public void shouldReturnRoleWhenMembershipExists() {
+        Role developerRole = DEVELOPER_ROLE();
+        when(membershipIndex.findRole(GIANNI_USER_UUID, ORDINARY_CORAL_LYNX_TEAM_UUID))
+                .thenReturn(Optional.of(developerRole));
+
+        Role role = rolesService.GetRole(GIANNI_USER_UUID, ORDINARY_CORAL_LYNX_TEAM_UUID);
+
+        assertEquals(developerRole, role);
+    }
+
+    @Test
+    public void shouldFailToGetRoleWhenMembershipDoesNotExist() {
+        when(teamsService.getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID)).thenReturn(ORDINARY_CORAL_LYNX_TEAM());
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> rolesService.GetRole(GIANNI_USER_UUID, ORDINARY_CORAL_LYNX_TEAM_UUID));
+
+        assertEquals(format("Role for user %s and team %s not found", GIANNI_USER_UUID,
+                ORDINARY_CORAL_LYNX_TEAM_UUID), exception.getMessage());
+    }
+
+    @Test
+    public void shouldFailToGetRoleWhenTeamDoesNotExist() {
+        when(teamsService.getTeam(UUID_1)).thenThrow(new ResourceNotFoundException(Team.class, UUID_1));
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> rolesService.GetRole(GIANNI_USER_UUID, UUID_1));
+
+        assertEquals(format("Team %s not found", UUID_1), exception.getMessage());
+    }
+
+    @Test
+    public void shouldGetRolesFromCatalogWithCappedPageSize() {
+        KeysetPage<Role> expectedPage = KeysetPage.of(List.of(DEVELOPER_ROLE()), 1000, Role::getId);
+        when(roleCatalog.page(null, 1000)).thenReturn(expectedPage);
+
+        KeysetPage<Role> page = rolesService.GetRoles(null, 5000);
+
+        assertSame(expectedPage, page);
+    }
+
+    @Test
+    public void shouldContinueRolesAfterPageToken() {
+        KeysetPage<Role> expectedPage = KeysetPage.of(List.of(PRODUCT_OWNER_ROLE()), 1, Role::getId);
+        when(roleCatalog.page(UUID_1, 1)).thenReturn(expectedPage);
+
+        KeysetPage<Role> page = rolesService.GetRoles(PageToken.encode(UUID_1), 1);
+
+        assertSame(expectedPage, page);
+    }
+
 }
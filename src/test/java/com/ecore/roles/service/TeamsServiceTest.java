@@ -2,6 +2,8 @@ package com.ecore.roles.service;
 
 import com.ecore.roles.client.TeamsClient;
 import com.ecore.roles.client.model.Team;
+import com.ecore.roles.exception.ResourceNotFoundException;
+import com.ecore.roles.index.TeamsReplica;
 import com.ecore.roles.service.impl.TeamsServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +15,15 @@ import org.springframework.http.ResponseEntity;
 
 import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM;
 import static com.ecore.roles.utils.TestData.ORDINARY_CORAL_LYNX_TEAM_UUID;
+import java.util.Optional;
+
+import static com.ecore.roles.utils.TestData.UUID_1;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -23,6 +33,8 @@ class TeamsServiceTest {
     private TeamsServiceImpl TeamsService;
     @Mock
     private TeamsClient TeamsClient;
+    @Mock
+    private TeamsReplica teamsReplica;
 
     @Test
     void shouldGetTeamWhenTeamIdExists() {
@@ -33,4 +45,24 @@ class TeamsServiceTest {
                         .body(ordinaryCoralLynxTeam));
         assertNotNull(TeamsService.getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID));
     }
+
+    @Test
+    void shouldGetTeamFromReplicaWhenItIsServing() {
+        Team ordinaryCoralLynxTeam = ORDINARY_CORAL_LYNX_TEAM();
+        when(teamsReplica.isServing()).thenReturn(true);
+        when(teamsReplica.findById(ORDINARY_CORAL_LYNX_TEAM_UUID))
+                .thenReturn(Optional.of(ordinaryCoralLynxTeam));
+
+        assertEquals(ordinaryCoralLynxTeam, TeamsService.getTeam(ORDINARY_CORAL_LYNX_TEAM_UUID));
+        verify(TeamsClient, never()).getTeam(any());
+    }
+
+    @Test
+    void shouldFailToGetTeamMissingFromReplica() {
+        when(teamsReplica.isServing()).thenReturn(true);
+        when(teamsReplica.findById(UUID_1)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> TeamsService.getTeam(UUID_1));
+        verify(TeamsClient, never()).getTeam(any());
+    }
 }
@@ -2,6 +2,7 @@ package com.ecore.roles.service;
 
 import com.ecore.roles.client.UsersClient;
 import com.ecore.roles.client.model.User;
+import com.ecore.roles.exception.ResourceNotFoundException;
 import com.ecore.roles.service.impl.UsersServiceImpl;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,7 +14,10 @@ import org.springframework.http.ResponseEntity;
 
 import static com.ecore.roles.utils.TestData.GIANNI_USER;
 import static com.ecore.roles.utils.TestData.UUID_1;
+import static java.lang.String.format;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,4 +38,15 @@ class UsersServiceTest {
 
         assertNotNull(usersService.getUser(UUID_1));
     }
+
+    @Test
+    void shouldFailToGetUserWhenUserIdDoesNotExist() {
+        when(usersClient.getUser(UUID_1))
+                .thenReturn(ResponseEntity.notFound().build());
+
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class,
+                () -> usersService.getUser(UUID_1));
+
+        assertEquals(format("User %s not found", UUID_1), exception.getMessage());
+    }
 }
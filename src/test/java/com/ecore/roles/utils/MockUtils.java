@@ -31,6 +31,12 @@ public class MockUtils {
         }
     }
 
+    public static void mockGetUserNotFound(MockRestServiceServer mockServer, UUID userId) {
+        mockServer.expect(requestTo("http://test.com/users/" + userId))
+                .andExpect(method(HttpMethod.GET))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND));
+    }
+
     public static void mockGetTeamById(MockRestServiceServer mockServer, UUID teamId, Team team) {
         try {
             mockServer.expect(ExpectedCount.manyTimes(), requestTo("http://test.com/teams/" + teamId))
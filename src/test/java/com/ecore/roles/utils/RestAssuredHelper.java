@@ -12,7 +12,9 @@ import io.restassured.response.ValidatableResponse;
 import io.restassured.specification.RequestSpecification;
 import org.hamcrest.Matchers;
 
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static io.restassured.RestAssured.given;
 import static io.restassured.RestAssured.when;
@@ -44,6 +46,20 @@ public class RestAssuredHelper {
                 .then());
     }
 
+    public static EcoreValidatableResponse listRoles(String pageToken, Integer pageSize) {
+        RequestSpecification request = given();
+        if (pageToken != null) {
+            request = request.queryParam("pageToken", pageToken);
+        }
+        if (pageSize != null) {
+            request = request.queryParam("pageSize", pageSize);
+        }
+        return sendRequest(request
+                .when()
+                .post("/v1/roles")
+                .then());
+    }
+
     public static EcoreValidatableResponse getRole(UUID roleId) {
         return sendRequest(given()
                 .pathParam("roleId", roleId)
@@ -69,6 +85,30 @@ public class RestAssuredHelper {
                 .then());
     }
 
+    public static EcoreValidatableResponse queueMembership(Membership membership, String prefer) {
+        return sendRequest(givenNullableBody(MembershipDto.fromModel(membership))
+                .contentType(JSON)
+                .header("Prefer", prefer)
+                .when()
+                .post("/v1/roles/memberships")
+                .then());
+    }
+
+    public static EcoreValidatableResponse getAssignmentStatus(UUID trackingId) {
+        return sendRequest(when()
+                .get("/v1/roles/memberships/assignments/{trackingId}", trackingId)
+                .then());
+    }
+
+    public static EcoreValidatableResponse createMemberships(List<Membership> memberships) {
+        return sendRequest(given()
+                .body(memberships.stream().map(MembershipDto::fromModel).collect(Collectors.toList()))
+                .contentType(JSON)
+                .when()
+                .post("/v1/roles/memberships/batch")
+                .then());
+    }
+
     public static EcoreValidatableResponse getMemberships(UUID roleId) {
         return sendRequest(given()
                 .queryParam("roleId", roleId)
@@ -77,6 +117,46 @@ public class RestAssuredHelper {
                 .then());
     }
 
+    public static EcoreValidatableResponse searchMemberships(
+            UUID roleId,
+            String pageToken,
+            Integer pageSize) {
+        RequestSpecification request = given().queryParam("roleId", roleId);
+        if (pageToken != null) {
+            request = request.queryParam("pageToken", pageToken);
+        }
+        if (pageSize != null) {
+            request = request.queryParam("pageSize", pageSize);
+        }
+        return sendRequest(request
+                .when()
+                .post("/v1/roles/memberships/search")
+                .then());
+    }
+
+    public static EcoreValidatableResponse searchMemberships(UUID roleId, String expand) {
+        return sendRequest(given()
+                .queryParam("roleId", roleId)
+                .queryParam("expand", expand)
+                .when()
+                .get("/v1/roles/memberships/search")
+                .then());
+    }
+
+    public static EcoreValidatableResponse exportMemberships(UUID roleId, UUID teamId) {
+        RequestSpecification request = given();
+        if (roleId != null) {
+            request = request.queryParam("roleId", roleId);
+        }
+        if (teamId != null) {
+            request = request.queryParam("teamId", teamId);
+        }
+        return sendRequest(request
+                .when()
+                .post("/v1/roles/memberships/export")
+                .then());
+    }
+
     private static RequestSpecification givenNullableBody(Object object) {
         RequestSpecification requestSpecification = given();
         if (object != null) {